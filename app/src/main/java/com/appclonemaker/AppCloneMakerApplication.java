@@ -8,9 +8,14 @@ import android.content.SharedPreferences;
 import android.content.pm.ApplicationInfo;
 import android.os.Build;
 
+import com.appclonemaker.model.Category;
+import com.appclonemaker.utils.AutoSaveScheduler;
+import com.appclonemaker.utils.ConfigManager;
+import com.appclonemaker.utils.ConfigRepository;
+import com.appclonemaker.utils.ConfigWriter;
 import com.appclonemaker.utils.DeviceProfileManager;
-import com.appclonemaker.utils.JsonParser;
 
+import java.util.List;
 import java.util.Locale;
 
 public class AppCloneMakerApplication extends Application {
@@ -21,6 +26,8 @@ public class AppCloneMakerApplication extends Application {
     
     private static AppCloneMakerApplication instance;
     private SharedPreferences preferences;
+    private ConfigManager configManager;
+    private AutoSaveScheduler autoSaveScheduler;
     
     @Override
     public void onCreate() {
@@ -66,11 +73,42 @@ public class AppCloneMakerApplication extends Application {
     }
     
     private void initializeManagers() {
-        // Initialize device profile manager
-        DeviceProfileManager.getInstance();
+        // Start parsing the configuration in the background; MainActivity picks
+        // up the result from the repository instead of parsing it again.
+        // DeviceProfileManager loads its catalogue on the config writer thread.
+        // Screens share this ConfigManager, so every save goes through one
+        // writer and change count.
+        DeviceProfileManager.initialize(this);
+        configManager = new ConfigManager(this);
+        ConfigRepository repository = ConfigRepository.getInstance();
+        repository.setSource(new ConfigRepository.Source() {
+            @Override
+            public List<Category> load() {
+                return configManager.loadCategories();
+            }
+            
+            @Override
+            public void save(List<Category> categories, ConfigWriter.SaveCallback callback) {
+                configManager.saveChangesAsync(categories, callback);
+            }
+        });
+        repository.preload();
         
-        // Initialize JSON parser with sample data
-        JsonParser.parseConfiguration();
+        autoSaveScheduler = new AutoSaveScheduler(configManager, Constants.DEFAULT_SAVE_INTERVAL);
+        if (isAutoSaveEnabled()) {
+            autoSaveScheduler.start();
+        }
+    }
+    
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level == TRIM_MEMORY_UI_HIDDEN) {
+            onAppBackground();
+        } else if (level >= TRIM_MEMORY_BACKGROUND && isAutoSaveEnabled()) {
+            // The process is a candidate for being killed: don't hold unsaved edits
+            autoSaveScheduler.flush();
+        }
     }
     
     private void setDefaultLocale() {
@@ -196,6 +234,19 @@ public class AppCloneMakerApplication extends Application {
     
     public void setAutoSaveEnabled(boolean enabled) {
         preferences.edit().putBoolean("auto_save_enabled", enabled).apply();
+        if (enabled) {
+            autoSaveScheduler.start();
+        } else {
+            autoSaveScheduler.stop();
+        }
+    }
+    
+    public ConfigManager getConfigManager() {
+        return configManager;
+    }
+    
+    public AutoSaveScheduler getAutoSaveScheduler() {
+        return autoSaveScheduler;
     }
     
     // Debug and logging utilities
@@ -246,10 +297,8 @@ public class AppCloneMakerApplication extends Application {
         
         // Auto-save if enabled
         if (isAutoSaveEnabled()) {
-            // Trigger auto-save in background thread
-            new Thread(() -> {
-                // Auto-save logic would go here
-            }).start();
+            autoSaveScheduler.flush();
+            logDebug("AutoSave", autoSaveScheduler.getMetrics().toString());
         }
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.appclonemaker;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.Menu;
@@ -16,23 +18,46 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.appclonemaker.adapter.CategoryAdapter;
+import com.appclonemaker.dialog.EditorDialogFragment;
 import com.appclonemaker.model.Category;
+import com.appclonemaker.model.ConfigModel;
 import com.appclonemaker.model.Setting;
 import com.appclonemaker.utils.ConfigManager;
-import com.appclonemaker.utils.JsonParser;
+import com.appclonemaker.utils.ConfigMapBuilder;
+import com.appclonemaker.utils.ConfigRepository;
+import com.appclonemaker.utils.SearchIndex;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-public class MainActivity extends AppCompatActivity implements CategoryAdapter.OnSettingClickListener {
+public class MainActivity extends AppCompatActivity implements CategoryAdapter.OnSettingClickListener,
+        EditorDialogFragment.OnSettingSavedListener {
+    
+    private static final int MAX_RECYCLED_SETTING_ROWS = 20;
+    private static final long SEARCH_DEBOUNCE_MS = 150;
     
     private EditText searchInput;
     private RecyclerView categoriesRecycler;
     private CategoryAdapter categoryAdapter;
     private FloatingActionButton saveFab;
-    private List<Category> categories;
+    private ConfigModel configModel;
     private ConfigManager configManager;
     
+    // Search runs off the main thread against an index rebuilt on every load
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+    private volatile SearchIndex searchIndex;
+    private int searchGeneration;
+    private Runnable pendingSearch;
+    private boolean fullyDrawnReported;
+    
+    // Exports stream to disk; keep them off the main thread
+    private final ExecutorService exportExecutor = Executors.newSingleThreadExecutor();
+    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -50,7 +75,7 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
         searchInput = findViewById(R.id.search_input);
         categoriesRecycler = findViewById(R.id.categories_recycler);
         saveFab = findViewById(R.id.save_fab);
-        configManager = new ConfigManager(this);
+        configManager = AppCloneMakerApplication.getInstance().getConfigManager();
     }
     
     private void setupToolbar() {
@@ -61,8 +86,13 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
     
     private void setupRecyclerView() {
         categoriesRecycler.setLayoutManager(new LinearLayoutManager(this));
-        categoryAdapter = new CategoryAdapter(this, this);
+        categoryAdapter = new CategoryAdapter(this);
         categoriesRecycler.setAdapter(categoryAdapter);
+        
+        // Setting rows from every category share one pool; keep enough around
+        // to refill a screen after collapsing a large category
+        categoriesRecycler.getRecycledViewPool()
+                .setMaxRecycledViews(CategoryAdapter.VIEW_TYPE_SETTING, MAX_RECYCLED_SETTING_ROWS);
     }
     
     private void setupSearch() {
@@ -82,67 +112,97 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
     
     private void setupFab() {
         saveFab.setOnClickListener(v -> {
-            if (configManager.saveConfiguration()) {
-                Toast.makeText(this, "✅ Configuration saved successfully!", Toast.LENGTH_SHORT).show();
-            } else {
-                Toast.makeText(this, "❌ Failed to save configuration", Toast.LENGTH_SHORT).show();
+            if (configModel == null) {
+                // Still loading
+                return;
             }
+            configManager.saveConfigurationAsync(configModel.getCategories(), success -> {
+                if (isFinishing()) {
+                    return;
+                }
+                if (success) {
+                    Toast.makeText(this, "✅ Configuration saved successfully!", Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(this, "❌ Failed to save configuration", Toast.LENGTH_SHORT).show();
+                }
+            });
         });
     }
     
     private void loadConfiguration() {
-        // Load default configuration or from saved state
-        categories = JsonParser.parseConfiguration();
-        categoryAdapter.updateCategories(categories);
+        // The configuration is parsed off the main thread, usually already
+        // started by the Application, and delivered here once ready
+        ConfigRepository.getInstance().getConfig().observe(this, this::onConfigurationLoaded);
     }
     
-    private void filterCategories(String query) {
-        if (query.trim().isEmpty()) {
-            categoryAdapter.updateCategories(categories);
-        } else {
-            List<Category> filteredCategories = new ArrayList<>();
-            for (Category category : categories) {
-                Category filteredCategory = new Category(category.getName());
-                for (Setting setting : category.getSettings()) {
-                    if (setting.getName().toLowerCase().contains(query.toLowerCase())) {
-                        filteredCategory.addSetting(setting);
-                    }
-                }
-                if (!filteredCategory.getSettings().isEmpty()) {
-                    filteredCategories.add(filteredCategory);
+    private void onConfigurationLoaded(ConfigModel model) {
+        configModel = model;
+        categoryAdapter.updateCategories(configModel.getCategories());
+        
+        final List<Category> loaded = configModel.getCategories();
+        searchIndex = null;
+        searchExecutor.execute(() -> {
+            searchIndex = SearchIndex.build(loaded);
+            // A query typed while the index was building found nothing to search; run it now
+            runOnUiThread(() -> {
+                String query = searchInput.getText().toString();
+                if (configModel == model && !query.isEmpty() && !isFinishing()) {
+                    filterCategories(query);
                 }
-            }
-            categoryAdapter.updateCategories(filteredCategories);
+            });
+        });
+        
+        if (!fullyDrawnReported) {
+            // Marks the end of startup for startup-timing traces and benchmarks
+            fullyDrawnReported = true;
+            reportFullyDrawn();
         }
     }
     
-    @Override
-    public void onSettingClick(Setting setting, String categoryName) {
-        // Open floating editor dialog
-        EditorDialogFragment dialog = EditorDialogFragment.newInstance(setting, categoryName);
-        dialog.setOnSettingSavedListener(new EditorDialogFragment.OnSettingSavedListener() {
-            @Override
-            public void onSettingSaved(Setting savedSetting) {
-                // Update the setting in our data
-                updateSettingInCategory(categoryName, savedSetting);
-                categoryAdapter.notifyDataSetChanged();
+    private void filterCategories(String query) {
+        // Debounce keystrokes; only the latest query is searched
+        if (pendingSearch != null) {
+            searchHandler.removeCallbacks(pendingSearch);
+        }
+        
+        final int generation = ++searchGeneration;
+        pendingSearch = () -> searchExecutor.execute(() -> {
+            // The index build queued by loadConfiguration runs first on this executor
+            SearchIndex index = searchIndex;
+            if (index == null) {
+                return;
             }
+            
+            List<Category> results = index.search(query);
+            runOnUiThread(() -> {
+                if (generation == searchGeneration && !isFinishing()) {
+                    categoryAdapter.updateCategories(results);
+                }
+            });
         });
+        searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
+    }
+    
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        searchHandler.removeCallbacksAndMessages(null);
+        searchExecutor.shutdownNow();
+        exportExecutor.shutdown();
+    }
+    
+    @Override
+    public void onSettingClick(Setting setting, String categoryName) {
+        // Open floating editor dialog; it reports saves to this activity, also when recreated
+        EditorDialogFragment dialog = EditorDialogFragment.newInstance(setting.getKey(), categoryName);
         dialog.show(getSupportFragmentManager(), "EditorDialog");
     }
     
-    private void updateSettingInCategory(String categoryName, Setting setting) {
-        for (Category category : categories) {
-            if (category.getName().equals(categoryName)) {
-                for (int i = 0; i < category.getSettings().size(); i++) {
-                    if (category.getSettings().get(i).getKey().equals(setting.getKey())) {
-                        category.getSettings().get(i).setValue(setting.getValue());
-                        break;
-                    }
-                }
-                break;
-            }
-        }
+    @Override
+    public void onSettingSaved(Setting savedSetting) {
+        // The dialog edited the setting in our model directly
+        categoryAdapter.refresh();
+        AppCloneMakerApplication.getInstance().getAutoSaveScheduler().requestSave();
     }
     
     @Override
@@ -155,7 +215,7 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
     public boolean onOptionsItemSelected(MenuItem item) {
         int id = item.getItemId();
         if (id == R.id.action_load) {
-            loadConfiguration();
+            ConfigRepository.getInstance().reload();
             return true;
         } else if (id == R.id.action_export) {
             exportConfiguration();
@@ -165,9 +225,28 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
     }
     
     private void exportConfiguration() {
-        // Export configuration as JSON
-        String jsonConfig = configManager.exportConfiguration(categories);
-        // Share or save the JSON file
-        Toast.makeText(this, "Configuration exported", Toast.LENGTH_SHORT).show();
+        if (configModel == null) {
+            return;
+        }
+        
+        // The editor changes settings on this thread, so take the values here and only write off it
+        Map<String, Object> config = ConfigMapBuilder.build(configModel.getCategories());
+        exportExecutor.execute(() -> {
+            String message;
+            try {
+                File exported = configManager.exportConfiguration(config);
+                message = "Configuration exported to " + exported.getName();
+            } catch (IOException e) {
+                e.printStackTrace();
+                message = "Export failed";
+            }
+            
+            String result = message;
+            runOnUiThread(() -> {
+                if (!isFinishing()) {
+                    Toast.makeText(this, result, Toast.LENGTH_SHORT).show();
+                }
+            });
+        });
     }
 }
\ No newline at end of file
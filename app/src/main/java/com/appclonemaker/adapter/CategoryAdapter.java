@@ -7,108 +7,145 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.AsyncListDiffer;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.appclonemaker.R;
 import com.appclonemaker.model.Category;
 import com.appclonemaker.model.Setting;
+import com.appclonemaker.utils.LabelFormatter;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
+/**
+ * Single flat list of category headers and, for expanded categories, their
+ * setting rows. Expanding or collapsing a category inserts or removes just
+ * that category's range, and setting rows are recycled across categories.
+ * Updates go through {@link AsyncListDiffer}, so only changed rows rebind.
+ */
+public class CategoryAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     
+    public static final int VIEW_TYPE_CATEGORY = 0;
+    public static final int VIEW_TYPE_SETTING = 1;
+    
+    private final AsyncListDiffer<ListRow> differ;
     private List<Category> categories;
     private OnSettingClickListener listener;
-    private SettingAdapter settingAdapter;
     
     public interface OnSettingClickListener {
         void onSettingClick(Setting setting, String categoryName);
     }
     
     public CategoryAdapter(OnSettingClickListener listener) {
+        this.differ = new AsyncListDiffer<>(this, ListRow.DIFF_CALLBACK);
         this.categories = new ArrayList<>();
         this.listener = listener;
+        setHasStableIds(true);
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).stableId;
+    }
+    
+    @Override
+    public int getItemViewType(int position) {
+        return differ.getCurrentList().get(position).isHeader() ? VIEW_TYPE_CATEGORY : VIEW_TYPE_SETTING;
     }
     
     @NonNull
     @Override
-    public CategoryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_category, parent, false);
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == VIEW_TYPE_SETTING) {
+            View view = inflater.inflate(R.layout.item_setting, parent, false);
+            return new SettingViewHolder(view, listener);
+        }
+        View view = inflater.inflate(R.layout.item_category, parent, false);
         return new CategoryViewHolder(view);
     }
     
     @Override
-    public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-        Category category = categories.get(position);
-        holder.bind(category);
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        ListRow row = differ.getCurrentList().get(position);
+        if (holder instanceof SettingViewHolder) {
+            ((SettingViewHolder) holder).bind(row.setting, row.category.getName());
+        } else {
+            ((CategoryViewHolder) holder).bind(row.category);
+        }
     }
     
     @Override
     public int getItemCount() {
-        return categories.size();
+        return differ.getCurrentList().size();
     }
     
+    /**
+     * Shows the given categories. The new rows are diffed against the current
+     * ones on a background thread and only rows that changed are rebound.
+     */
     public void updateCategories(List<Category> newCategories) {
-        this.categories.clear();
-        this.categories.addAll(newCategories);
-        notifyDataSetChanged();
+        this.categories = new ArrayList<>(newCategories);
+        refresh();
+    }
+    
+    /** Re-diffs the current categories, e.g. after a setting was edited in place. */
+    public void refresh() {
+        List<ListRow> rows = new ArrayList<>();
+        for (Category category : categories) {
+            rows.add(ListRow.header(category));
+            if (category.isExpanded()) {
+                appendSettingRows(rows, category);
+            }
+        }
+        differ.submitList(rows);
+    }
+    
+    private void toggleCategory(int position) {
+        Category category = differ.getCurrentList().get(position).category;
+        category.toggleExpanded();
+        // Rebuilt from the model rather than the displayed rows, which lag
+        // behind until a diff still running for an earlier tap commits
+        refresh();
+    }
+    
+    private static void appendSettingRows(List<ListRow> target, Category category) {
+        for (Setting setting : category.getSettings()) {
+            target.add(ListRow.setting(category, setting));
+        }
     }
     
     class CategoryViewHolder extends RecyclerView.ViewHolder {
         private TextView categoryName;
         private ImageView expandIcon;
-        private RecyclerView settingsRecycler;
         private View categoryHeader;
         
         public CategoryViewHolder(@NonNull View itemView) {
             super(itemView);
             categoryName = itemView.findViewById(R.id.category_name);
             expandIcon = itemView.findViewById(R.id.expand_icon);
-            settingsRecycler = itemView.findViewById(R.id.settings_recycler);
             categoryHeader = itemView.findViewById(R.id.category_header);
             
-            // Setup RecyclerView for settings
-            settingsRecycler.setLayoutManager(new LinearLayoutManager(itemView.getContext()));
-            settingAdapter = new SettingAdapter(listener);
-            settingsRecycler.setAdapter(settingAdapter);
-            
-            // Set initial visibility
-            settingsRecycler.setVisibility(View.GONE);
-        }
-        
-        public void bind(Category category) {
-            categoryName.setText(formatLabel(category.getName()));
-            
             // Setup click listener for header
             categoryHeader.setOnClickListener(v -> {
-                category.toggleExpanded();
-                updateExpansionState(category);
+                int position = getBindingAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) {
+                    return;
+                }
+                toggleCategory(position);
             });
+        }
+        
+        public void bind(Category category) {
+            categoryName.setText(LabelFormatter.format(category.getName()));
             
             // Update expansion state
             updateExpansionState(category);
-            
-            // Update settings adapter
-            settingAdapter.updateSettings(category.getSettings(), category.getName());
         }
         
         private void updateExpansionState(Category category) {
-            if (category.isExpanded()) {
-                expandIcon.setRotation(180);
-                settingsRecycler.setVisibility(View.VISIBLE);
-            } else {
-                expandIcon.setRotation(0);
-                settingsRecycler.setVisibility(View.GONE);
-            }
+            expandIcon.setRotation(category.isExpanded() ? 180 : 0);
         }
     }
-    
-    private String formatLabel(String key) {
-        return key.replaceAll("([A-Z])", " $1")
-                 .replaceAll("^.", str -> str.toUpperCase())
-                 .replace("Web View", "WebView");
-    }
 }
\ No newline at end of file
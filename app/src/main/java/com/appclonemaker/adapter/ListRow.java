@@ -0,0 +1,89 @@
+package com.appclonemaker.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.model.Setting;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One row of the settings list: a category header when {@code setting} is
+ * null, otherwise one of that category's settings. Settings are edited in
+ * place, so each row snapshots what it displays; the diff compares those
+ * snapshots to decide which rows actually need rebinding.
+ */
+final class ListRow {
+    
+    private static final Map<String, Long> categoryIds = new HashMap<>();
+    // Keyed by category name and setting key: the same key may appear in several categories
+    private static final Map<String, Long> settingIds = new HashMap<>();
+    private static final char ID_SEPARATOR = '\u0000';
+    private static long nextId = 1;
+    
+    static final DiffUtil.ItemCallback<ListRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<ListRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ListRow oldRow, @NonNull ListRow newRow) {
+            return oldRow.stableId == newRow.stableId;
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull ListRow oldRow, @NonNull ListRow newRow) {
+            return oldRow.expanded == newRow.expanded
+                    && oldRow.enabled == newRow.enabled
+                    && oldRow.name.equals(newRow.name)
+                    && oldRow.displayValue.equals(newRow.displayValue);
+        }
+    };
+    
+    final Category category;
+    final Setting setting;
+    final long stableId;
+    
+    private final String name;
+    private final String displayValue;
+    private final boolean enabled;
+    private final boolean expanded;
+    
+    private ListRow(Category category, Setting setting) {
+        this.category = category;
+        this.setting = setting;
+        if (setting == null) {
+            this.stableId = idFor(categoryIds, category.getName());
+            this.name = category.getName();
+            this.displayValue = "";
+            this.enabled = false;
+            this.expanded = category.isExpanded();
+        } else {
+            this.stableId = idFor(settingIds, category.getName() + ID_SEPARATOR + setting.getKey());
+            this.name = setting.getName();
+            this.displayValue = setting.getDisplayValue();
+            this.enabled = setting.isEnabled();
+            this.expanded = false;
+        }
+    }
+    
+    static ListRow header(Category category) {
+        return new ListRow(category, null);
+    }
+    
+    static ListRow setting(Category category, Setting setting) {
+        return new ListRow(category, setting);
+    }
+    
+    boolean isHeader() {
+        return setting == null;
+    }
+    
+    /** Ids stay fixed for a given category, or setting within a category, for the life of the process. */
+    private static synchronized long idFor(Map<String, Long> ids, String name) {
+        Long id = ids.get(name);
+        if (id == null) {
+            id = nextId++;
+            ids.put(name, id);
+        }
+        return id;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.appclonemaker.adapter;
+
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.appclonemaker.R;
+import com.appclonemaker.model.Setting;
+import com.appclonemaker.utils.LabelFormatter;
+
+/** A setting row of {@link CategoryAdapter}'s flattened list. */
+class SettingViewHolder extends RecyclerView.ViewHolder {
+    private TextView settingName;
+    private TextView settingValue;
+    private View itemContainer;
+    private CategoryAdapter.OnSettingClickListener listener;
+    
+    public SettingViewHolder(@NonNull View itemView, CategoryAdapter.OnSettingClickListener listener) {
+        super(itemView);
+        this.listener = listener;
+        settingName = itemView.findViewById(R.id.setting_name);
+        settingValue = itemView.findViewById(R.id.setting_value);
+        itemContainer = itemView.findViewById(R.id.setting_container);
+    }
+    
+    public void bind(Setting setting, String categoryName) {
+        settingName.setText(LabelFormatter.format(setting.getName()));
+        settingValue.setText(setting.getDisplayValue());
+        settingValue.setTextColor(getValueColor(setting));
+        
+        // Set click listener
+        itemContainer.setOnClickListener(v -> {
+            if (listener != null) {
+                listener.onSettingClick(setting, categoryName);
+            }
+        });
+        
+        // Apply setting type specific styling
+        applySettingTypeStyling(setting);
+    }
+    
+    private void applySettingTypeStyling(Setting setting) {
+        switch (setting.getType()) {
+            case BOOLEAN:
+                // Add boolean-specific styling
+                break;
+            case CUSTOM:
+                // Add custom editor styling
+                break;
+            case COMPOUND:
+                // Add compound setting styling
+                break;
+            default:
+                // Default styling
+                break;
+        }
+    }
+    
+    private int getValueColor(Setting setting) {
+        switch (setting.getType()) {
+            case BOOLEAN:
+                return setting.isEnabled() ? 
+                       itemView.getContext().getColor(R.color.success_green) : 
+                       itemView.getContext().getColor(R.color.error_red);
+            case CUSTOM:
+            case COMPOUND:
+                return itemView.getContext().getColor(R.color.primary_blue);
+            default:
+                return itemView.getContext().getColor(R.color.text_secondary);
+        }
+    }
+}
\ No newline at end of file
@@ -20,20 +20,37 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.DialogFragment;
 
 import com.appclonemaker.R;
+import com.appclonemaker.model.ConfigModel;
 import com.appclonemaker.model.Setting;
+import com.appclonemaker.utils.ConfigRepository;
 import com.appclonemaker.utils.DeviceProfileManager;
+import com.appclonemaker.utils.LabelFormatter;
 import com.appclonemaker.utils.PathPicker;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
+/**
+ * Floating editor for one setting. The arguments only name the setting; the
+ * dialog edits the live {@link Setting} from {@link ConfigRepository}, so
+ * opening or recreating it never copies the value, however large, through a
+ * Bundle. Recreated after process death, it waits for the repository to load
+ * before showing the editor. Saving only changes what the user changed, so
+ * an unchanged save leaves the setting clean.
+ */
 public class EditorDialogFragment extends DialogFragment {
     
-    private static final String ARG_SETTING = "setting";
+    private static final String ARG_SETTING_KEY = "setting_key";
     private static final String ARG_CATEGORY = "category";
+    private static final String STATE_DROPDOWN_VALUE = "dropdown_value";
     
+    // Null until the configuration has loaded
     private Setting setting;
+    private String settingKey;
     private String categoryName;
+    // The dropdown choice, applied to the setting only when saved
+    private Object dropdownValue;
     private OnSettingSavedListener listener;
     private LinearLayout editorContainer;
     private TextView headerTitle;
@@ -51,21 +68,42 @@ public class EditorDialogFragment extends DialogFragment {
         void onSettingSaved(Setting setting);
     }
     
-    public static EditorDialogFragment newInstance(Setting setting, String categoryName) {
+    public static EditorDialogFragment newInstance(String settingKey, String categoryName) {
         EditorDialogFragment fragment = new EditorDialogFragment();
         Bundle args = new Bundle();
-        args.putSerializable(ARG_SETTING, setting);
+        args.putString(ARG_SETTING_KEY, settingKey);
         args.putString(ARG_CATEGORY, categoryName);
         fragment.setArguments(args);
         return fragment;
     }
     
+    @Override
+    public void onAttach(@NonNull Context context) {
+        super.onAttach(context);
+        // A listener set by the caller does not survive recreation; the host's does
+        if (listener == null && context instanceof OnSettingSavedListener) {
+            listener = (OnSettingSavedListener) context;
+        }
+    }
+    
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         if (getArguments() != null) {
-            setting = (Setting) getArguments().getSerializable(ARG_SETTING);
             categoryName = getArguments().getString(ARG_CATEGORY);
+            settingKey = getArguments().getString(ARG_SETTING_KEY);
+        }
+        if (savedInstanceState != null) {
+            dropdownValue = savedInstanceState.getString(STATE_DROPDOWN_VALUE);
+        }
+    }
+    
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        // Options are strings; the choice is small enough for the Bundle
+        if (dropdownValue instanceof String) {
+            outState.putString(STATE_DROPDOWN_VALUE, (String) dropdownValue);
         }
     }
     
@@ -80,8 +118,30 @@ public class EditorDialogFragment extends DialogFragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         setupViews(view);
-        setupEditor();
         setupListeners();
+        // Delivered at once when loaded; after process death, once the reload finishes.
+        // A reload publishes a new model, so the setting is looked up again each time
+        ConfigRepository.getInstance().getConfig().observe(getViewLifecycleOwner(), this::bindSetting);
+    }
+    
+    private void bindSetting(ConfigModel config) {
+        Setting current = settingKey != null ? config.getSetting(categoryName, settingKey) : null;
+        if (current == null) {
+            // The setting is gone from the reloaded configuration: nothing to edit
+            setting = null;
+            dismissAllowingStateLoss();
+            return;
+        }
+        if (current == setting) {
+            // Same model: keep whatever the user has typed so far
+            return;
+        }
+        setting = current;
+        if (dropdownValue == null) {
+            dropdownValue = setting.getValue();
+        }
+        headerTitle.setText(LabelFormatter.format(setting.getName()));
+        setupEditor();
     }
     
     private View createDialogView(LayoutInflater inflater, ViewGroup container) {
@@ -102,8 +162,6 @@ public class EditorDialogFragment extends DialogFragment {
         editorContainer = view.findViewById(R.id.editor_body);
         cancelButton = view.findViewById(R.id.editor_cancel_btn);
         saveButton = view.findViewById(R.id.editor_save_btn);
-        
-        headerTitle.setText(formatLabel(setting.getName()));
     }
     
     private void setupEditor() {
@@ -144,7 +202,7 @@ public class EditorDialogFragment extends DialogFragment {
     
     private void setupBooleanEditor() {
         checkboxInput = new CheckBox(getContext());
-        checkboxInput.setText(formatLabel(setting.getName()));
+        checkboxInput.setText(LabelFormatter.format(setting.getName()));
         checkboxInput.setChecked(setting.isEnabled());
         
         LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
@@ -159,7 +217,7 @@ public class EditorDialogFragment extends DialogFragment {
     private void setupStringEditor() {
         // Add label
         TextView label = new TextView(getContext());
-        label.setText(formatLabel(setting.getName()));
+        label.setText(LabelFormatter.format(setting.getName()));
         label.setTextColor(Color.BLACK);
         label.setTextSize(16);
         editorContainer.addView(label);
@@ -174,7 +232,7 @@ public class EditorDialogFragment extends DialogFragment {
     private void setupNumberEditor() {
         // Similar to string editor but with number input type
         TextView label = new TextView(getContext());
-        label.setText(formatLabel(setting.getName()));
+        label.setText(LabelFormatter.format(setting.getName()));
         label.setTextColor(Color.BLACK);
         label.setTextSize(16);
         editorContainer.addView(label);
@@ -189,7 +247,7 @@ public class EditorDialogFragment extends DialogFragment {
     private void setupDropdownEditor() {
         // Create a clickable text view that opens a list dialog
         dropdownInput = new TextView(getContext());
-        dropdownInput.setText(formatLabel(setting.getName()));
+        dropdownInput.setText(LabelFormatter.format(setting.getName()));
         dropdownInput.setTextColor(Color.BLACK);
         dropdownInput.setTextSize(16);
         dropdownInput.setPadding(16, 16, 16, 16);
@@ -204,7 +262,7 @@ public class EditorDialogFragment extends DialogFragment {
     private void setupTextEditor() {
         // Similar to string editor but with multiline support
         TextView label = new TextView(getContext());
-        label.setText(formatLabel(setting.getName()));
+        label.setText(LabelFormatter.format(setting.getName()));
         label.setTextColor(Color.BLACK);
         label.setTextSize(16);
         editorContainer.addView(label);
@@ -220,7 +278,7 @@ public class EditorDialogFragment extends DialogFragment {
     private void setupArrayEditor() {
         // For array settings, show a textarea where each line is an array item
         TextView label = new TextView(getContext());
-        label.setText(formatLabel(setting.getName()));
+        label.setText(LabelFormatter.format(setting.getName()));
         label.setTextColor(Color.BLACK);
         label.setTextSize(16);
         editorContainer.addView(label);
@@ -441,6 +499,11 @@ public class EditorDialogFragment extends DialogFragment {
     }
     
     private void saveChanges() {
+        if (setting == null) {
+            // Still loading; there is nothing to save yet
+            return;
+        }
+        
         // Extract values from editor controls and update setting
         if (setting.hasCustomEditor()) {
             saveCustomEditorValues();
@@ -459,7 +522,7 @@ public class EditorDialogFragment extends DialogFragment {
         switch (setting.getType()) {
             case BOOLEAN:
                 if (checkboxInput != null) {
-                    setting.setEnabled(checkboxInput.isChecked());
+                    updateEnabled(checkboxInput.isChecked());
                 }
                 break;
             case STRING:
@@ -468,12 +531,12 @@ public class EditorDialogFragment extends DialogFragment {
                     String value = textInput.getText().toString();
                     if (setting.getType() == Setting.SettingType.NUMBER) {
                         try {
-                            setting.setValue(Double.parseDouble(value));
+                            updateValue(Double.parseDouble(value));
                         } catch (NumberFormatException e) {
-                            setting.setValue(0.0);
+                            updateValue(0.0);
                         }
                     } else {
-                        setting.setValue(value);
+                        updateValue(value);
                     }
                 }
                 break;
@@ -491,14 +554,14 @@ public class EditorDialogFragment extends DialogFragment {
                                 items.add(trimmed);
                             }
                         }
-                        setting.setValue(items);
+                        updateValue(items);
                     } else {
-                        setting.setValue(value);
+                        updateValue(value);
                     }
                 }
                 break;
             case DROPDOWN:
-                // Value is already set when dropdown is selected
+                updateValue(dropdownValue);
                 break;
         }
     }
@@ -508,21 +571,38 @@ public class EditorDialogFragment extends DialogFragment {
         if (setting.getKey().equals("bundleAppData")) {
             if (textInput != null) {
                 // Save password or other bundle app data properties
-                setting.setValue(textInput.getText().toString());
+                updateValue(textInput.getText().toString());
             }
         } else if (setting.getKey().equals("deleteOnExit")) {
             if (checkboxInput != null) {
-                setting.setEnabled(checkboxInput.isChecked());
+                updateEnabled(checkboxInput.isChecked());
             }
         } else if (setting.getKey().equals("spoofLocation")) {
             // Save latitude and longitude
             if (textInput != null) {
-                setting.setValue(textInput.getText().toString());
+                updateValue(textInput.getText().toString());
             }
         }
         // Add more custom editor saving logic as needed
     }
     
+    /** Sets the value only if it differs, so saving without edits leaves the setting clean. */
+    private void updateValue(Object value) {
+        Object current = setting.getValue();
+        boolean unchanged = value instanceof Number && current instanceof Number
+                ? ((Number) value).doubleValue() == ((Number) current).doubleValue()
+                : Objects.equals(value, current);
+        if (!unchanged) {
+            setting.setValue(value);
+        }
+    }
+    
+    private void updateEnabled(boolean enabled) {
+        if (setting.isEnabled() != enabled) {
+            setting.setEnabled(enabled);
+        }
+    }
+    
     private void showDropdownDialog() {
         // Show a simple dialog with radio buttons for dropdown selection
         if (setting.getOptions() == null || setting.getOptions().isEmpty()) {
@@ -531,11 +611,11 @@ public class EditorDialogFragment extends DialogFragment {
         
         androidx.appcompat.app.AlertDialog.Builder builder = 
                 new androidx.appcompat.app.AlertDialog.Builder(getContext());
-        builder.setTitle(formatLabel(setting.getName()));
+        builder.setTitle(LabelFormatter.format(setting.getName()));
         
         String[] options = setting.getOptions().toArray(new String[0]);
         builder.setSingleChoiceItems(options, getSelectedIndex(), (dialog, which) -> {
-            setting.setValue(setting.getOptions().get(which));
+            dropdownValue = setting.getOptions().get(which);
             updateDropdownDisplay();
             dialog.dismiss();
         });
@@ -545,14 +625,14 @@ public class EditorDialogFragment extends DialogFragment {
     }
     
     private int getSelectedIndex() {
-        if (setting.getValue() == null) return 0;
-        String currentValue = setting.getValue().toString();
+        if (dropdownValue == null) return 0;
+        String currentValue = dropdownValue.toString();
         return setting.getOptions().indexOf(currentValue);
     }
     
     private void updateDropdownDisplay() {
-        if (dropdownInput != null && setting.getValue() != null) {
-            dropdownInput.setText(setting.getValue().toString());
+        if (dropdownInput != null && dropdownValue != null) {
+            dropdownInput.setText(dropdownValue.toString());
             dropdownInput.setPadding(16, 16, 16, 16);
         }
     }
@@ -598,12 +678,6 @@ public class EditorDialogFragment extends DialogFragment {
                 });
     }
     
-    private String formatLabel(String key) {
-        return key.replaceAll("([A-Z])", " $1")
-                 .replaceAll("^.", str -> str.toUpperCase())
-                 .replace("Web View", "WebView");
-    }
-    
     private void showToast(String message) {
         if (getContext() != null) {
             android.widget.Toast.makeText(getContext(), message, android.widget.Toast.LENGTH_SHORT).show();
@@ -1,16 +1,23 @@
 package com.appclonemaker.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Category {
     private String name;
     private List<Setting> settings;
+    private List<Setting> settingsView;
+    private Map<String, Setting> settingsByKey;
     private boolean isExpanded;
     
     public Category(String name) {
         this.name = name;
         this.settings = new ArrayList<>();
+        this.settingsView = Collections.unmodifiableList(settings);
+        this.settingsByKey = new HashMap<>();
         this.isExpanded = false;
     }
     
@@ -22,16 +29,44 @@ public class Category {
         this.name = name;
     }
     
+    /** Read-only view; use {@link #addSetting} and {@link #removeSetting} to change it. */
     public List<Setting> getSettings() {
-        return settings;
+        return settingsView;
     }
     
     public void setSettings(List<Setting> settings) {
-        this.settings = settings;
+        this.settings = new ArrayList<>();
+        this.settingsView = Collections.unmodifiableList(this.settings);
+        this.settingsByKey = new HashMap<>();
+        for (Setting setting : settings) {
+            addSetting(setting);
+        }
     }
     
+    /** Adds a setting, replacing in place any existing setting with the same key. */
     public void addSetting(Setting setting) {
-        this.settings.add(setting);
+        Setting previous = settingsByKey.put(setting.getKey(), setting);
+        if (previous != null) {
+            settings.set(settings.indexOf(previous), setting);
+        } else {
+            settings.add(setting);
+        }
+    }
+    
+    public Setting getSetting(String key) {
+        return settingsByKey.get(key);
+    }
+    
+    public boolean hasSetting(String key) {
+        return settingsByKey.containsKey(key);
+    }
+    
+    public Setting removeSetting(String key) {
+        Setting removed = settingsByKey.remove(key);
+        if (removed != null) {
+            settings.remove(removed);
+        }
+        return removed;
     }
     
     public boolean isExpanded() {
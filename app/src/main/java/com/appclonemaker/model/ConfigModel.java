@@ -0,0 +1,100 @@
+package com.appclonemaker.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The loaded configuration: categories in display order plus a name index,
+ * so edits and bulk updates find their category and setting by lookup
+ * instead of scanning.
+ */
+public class ConfigModel {
+    private final List<Category> categories;
+    private final List<Category> categoriesView;
+    private final Map<String, Category> categoriesByName;
+    
+    public ConfigModel() {
+        this.categories = new ArrayList<>();
+        this.categoriesView = Collections.unmodifiableList(categories);
+        this.categoriesByName = new HashMap<>();
+    }
+    
+    public ConfigModel(List<Category> categories) {
+        this();
+        for (Category category : categories) {
+            addCategory(category);
+        }
+    }
+    
+    public List<Category> getCategories() {
+        return categoriesView;
+    }
+    
+    /** Adds a category, replacing in place any existing category with the same name. */
+    public void addCategory(Category category) {
+        Category previous = categoriesByName.put(category.getName(), category);
+        if (previous != null) {
+            categories.set(categories.indexOf(previous), category);
+        } else {
+            categories.add(category);
+        }
+    }
+    
+    public Category getCategory(String name) {
+        return categoriesByName.get(name);
+    }
+    
+    public Category removeCategory(String name) {
+        Category removed = categoriesByName.remove(name);
+        if (removed != null) {
+            categories.remove(removed);
+        }
+        return removed;
+    }
+    
+    public Setting getSetting(String categoryName, String key) {
+        Category category = categoriesByName.get(categoryName);
+        return category != null ? category.getSetting(key) : null;
+    }
+    
+    /** Looks a setting up by key alone; costs one hash lookup per category. */
+    public Setting findSetting(String key) {
+        for (Category category : categories) {
+            Setting setting = category.getSetting(key);
+            if (setting != null) {
+                return setting;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Sets the value of every setting whose key appears in {@code values},
+     * e.g. when applying a device profile or an imported configuration.
+     * Returns how many settings were updated.
+     */
+    public int applyValues(Map<String, Object> values) {
+        int updated = 0;
+        for (Category category : categories) {
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                Setting setting = category.getSetting(entry.getKey());
+                if (setting != null) {
+                    setting.setValue(entry.getValue());
+                    updated++;
+                }
+            }
+        }
+        return updated;
+    }
+    
+    public int getSettingCount() {
+        int count = 0;
+        for (Category category : categories) {
+            count += category.getSettings().size();
+        }
+        return count;
+    }
+}
\ No newline at end of file
@@ -12,6 +12,7 @@ public class Setting {
     private String description;
     private boolean isParentSetting; // For settings that have child settings
     private List<Setting> childSettings;
+    private boolean isDirty; // Value or enabled state changed since the last save
     
     public enum SettingType {
         BOOLEAN,
@@ -56,6 +57,7 @@ public class Setting {
     
     public void setValue(Object value) {
         this.value = value;
+        isDirty = true;
     }
     
     public SettingType getType() {
@@ -72,6 +74,16 @@ public class Setting {
     
     public void setEnabled(boolean enabled) {
         isEnabled = enabled;
+        isDirty = true;
+    }
+    
+    public boolean isDirty() {
+        return isDirty;
+    }
+    
+    /** Called once the current value and enabled state have been persisted. */
+    public void markClean() {
+        isDirty = false;
     }
     
     public List<String> getOptions() {
@@ -0,0 +1,107 @@
+package com.appclonemaker.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.appclonemaker.model.ConfigModel;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the loaded configuration in the background: periodically, shortly
+ * after an edit, and right away when the app leaves the foreground. Saves go
+ * through {@link ConfigManager#saveChangesAsync}, so a save with nothing
+ * changed writes nothing and a save after a few edits writes only those.
+ *
+ * <p>Timing runs on the config writer thread rather than a thread of its own.
+ * Settings are only read on the main thread, where the UI edits them, so
+ * every timer just posts the save there.
+ */
+public class AutoSaveScheduler {
+    
+    // Edits arriving closer together than this are saved together
+    private static final long DEBOUNCE_MS = 2000;
+    
+    private final ConfigManager configManager;
+    private final long intervalMs;
+    private final ScheduledExecutorService executor = ConfigWriter.getExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable saveOnMainThread = this::saveNow;
+    
+    private ScheduledFuture<?> periodicSave;
+    private ScheduledFuture<?> debouncedSave;
+    
+    public AutoSaveScheduler(ConfigManager configManager, long intervalMs) {
+        this.configManager = configManager;
+        this.intervalMs = intervalMs;
+    }
+    
+    public synchronized void start() {
+        if (periodicSave != null) {
+            return;
+        }
+        periodicSave = executor.scheduleWithFixedDelay(this::postSave, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    public synchronized void stop() {
+        if (periodicSave != null) {
+            periodicSave.cancel(false);
+            periodicSave = null;
+        }
+        if (debouncedSave != null) {
+            debouncedSave.cancel(false);
+            debouncedSave = null;
+        }
+    }
+    
+    public synchronized boolean isRunning() {
+        return periodicSave != null;
+    }
+    
+    /** Schedules a save shortly after the latest of a burst of edits. */
+    public synchronized void requestSave() {
+        if (periodicSave == null) {
+            return;
+        }
+        if (debouncedSave != null) {
+            debouncedSave.cancel(false);
+        }
+        debouncedSave = executor.schedule(this::postSave, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    /** Saves pending changes now, e.g. when the app goes to the background. */
+    public void flush() {
+        synchronized (this) {
+            if (debouncedSave != null) {
+                debouncedSave.cancel(false);
+                debouncedSave = null;
+            }
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            saveNow();
+        } else {
+            postSave();
+        }
+    }
+    
+    public SaveMetrics getMetrics() {
+        return configManager.getSaveMetrics();
+    }
+    
+    private void postSave() {
+        // Coalesce with a save already waiting for the main thread
+        mainHandler.removeCallbacks(saveOnMainThread);
+        mainHandler.post(saveOnMainThread);
+    }
+    
+    private void saveNow() {
+        ConfigModel config = ConfigRepository.getInstance().getLoadedConfig();
+        if (config == null) {
+            // Still loading: nothing the user could have changed yet
+            return;
+        }
+        configManager.saveChangesAsync(config.getCategories(), null);
+    }
+}
\ No newline at end of file
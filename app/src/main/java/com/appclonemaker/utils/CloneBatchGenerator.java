@@ -0,0 +1,234 @@
+package com.appclonemaker.utils;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces many randomized clone configs from one template on a fork/join
+ * pool. Only what the template switches on is randomized: a fresh identifier
+ * for each enabled {@code change*} toggle, written to the value key the
+ * {@link SettingSchema} gives the toggle, so the toggle itself stays a
+ * boolean; a device profile's build props when {@code buildsProps} and
+ * {@code randomizeBuildProps} are on; a location when {@code spoofLocation}
+ * is on; and an install time when {@code changeInstallUpdateTime} is on with
+ * an absolute time. Each clone is handed to the {@link Sink} as soon as it is
+ * built and then dropped, so memory use does not grow with the batch size
+ * beyond the values checked for uniqueness.
+ *
+ * <p>Identifiers are checked against every clone already generated in the
+ * batch and regenerated on collision, so no two clones share an Android ID,
+ * IMEI, MAC or advertising ID. Devices are drawn up front from the
+ * {@link DeviceSelector}, in one sequence so no device repeats until every
+ * candidate has been used, and so a seeded generator reproduces them.
+ */
+public class CloneBatchGenerator {
+    
+    private static final String KEY_BUILD_PROPS = "buildsProps";
+    private static final String KEY_RANDOMIZE_BUILD_PROPS = "randomizeBuildProps";
+    private static final String KEY_SPOOF_LOCATION = "spoofLocation";
+    private static final String KEY_LATITUDE = "spoofLocationLatitude";
+    private static final String KEY_LONGITUDE = "spoofLocationLongitude";
+    private static final String KEY_CHANGE_INSTALL_TIME = "changeInstallUpdateTime";
+    private static final String KEY_RELATIVE_INSTALL_TIME = "relativeInstallUpdateTime";
+    private static final String KEY_INSTALL_TIME = "customInstallUpdateTime";
+    private static final long MAX_INSTALL_AGE_MS = TimeUnit.DAYS.toMillis(365);
+    
+    // Clones generated per leaf task; each one is also written, so keep leaves small
+    private static final int CLONES_PER_TASK = 4;
+    // Regenerating more than this often means the identifier space is exhausted
+    private static final int MAX_COLLISION_RETRIES = 16;
+    // Random stream for device draws; clone slots are numbered from 0
+    private static final long DEVICE_SLOT = -1;
+    
+    public interface Sink {
+        /** Persists one clone; called concurrently from pool threads. */
+        void write(int index, Map<String, Object> clone) throws IOException;
+    }
+    
+    public interface ProgressListener {
+        /** Called from pool threads after each clone is written. */
+        void onCloneWritten(int completed, int total);
+    }
+    
+    private final IdentityGenerator identityGenerator;
+    private final DeviceSelector deviceSelector;
+    private final ForkJoinPool pool;
+    
+    /**
+     * Runs batches on a pool shared by clone generators. Sinks block on file
+     * I/O, so batches stay off {@link ForkJoinPool#commonPool()}, which other
+     * code expects to be free for computation.
+     */
+    public CloneBatchGenerator(IdentityGenerator identityGenerator,
+                               DeviceSelector deviceSelector) {
+        this(identityGenerator, deviceSelector, DefaultPool.INSTANCE);
+    }
+    
+    public CloneBatchGenerator(IdentityGenerator identityGenerator,
+                               DeviceSelector deviceSelector,
+                               ForkJoinPool pool) {
+        this.identityGenerator = identityGenerator;
+        this.deviceSelector = deviceSelector;
+        this.pool = pool;
+    }
+    
+    /**
+     * Generates {@code count} clones of {@code template} and writes each one to
+     * {@code sink}. Blocks until the batch is done; call off the main thread.
+     */
+    public void generate(Map<String, Object> template, int count, Sink sink, ProgressListener listener)
+            throws IOException {
+        boolean randomizeDevices = isEnabled(template, KEY_BUILD_PROPS) && isEnabled(template, KEY_RANDOMIZE_BUILD_PROPS);
+        Batch batch = new Batch(template, count, randomizeDevices ? drawDevices(count) : null, sink, listener);
+        try {
+            pool.invoke(new CloneTask(batch, 0, count));
+        } catch (RuntimeException e) {
+            // Fork/join rethrows worker failures wrapped; surface the write error itself
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            throw e;
+        }
+    }
+    
+    private Map<String, Object> buildClone(Batch batch, int index) {
+        IdentityGenerator generator = identityGenerator.forSlot(index);
+        Map<String, Object> clone = new LinkedHashMap<>(batch.template);
+        
+        for (Map.Entry<String, Set<String>> identity : batch.seenValues.entrySet()) {
+            String key = identity.getKey();
+            clone.put(SettingSchema.forKey(key).getValueKey(), uniqueValue(identity.getValue(), generator, key));
+        }
+        
+        if (batch.devices != null) {
+            clone.putAll(batch.devices[index].getProperties());
+        }
+        
+        if (batch.spoofLocation) {
+            String[] location = generator.generateLocation().split(",");
+            clone.put(KEY_LATITUDE, location[0]);
+            clone.put(KEY_LONGITUDE, location[1]);
+        }
+        if (batch.changeInstallTime) {
+            clone.put(KEY_INSTALL_TIME, generator.generateInstallTime(batch.startedAt, MAX_INSTALL_AGE_MS));
+        }
+        
+        return clone;
+    }
+    
+    /** One device per clone, or null when no device matches the filter. */
+    private DeviceProfile[] drawDevices(int count) {
+        if (deviceSelector.isEmpty()) {
+            return null;
+        }
+        IdentityGenerator.RandomSource random = identityGenerator.forSlot(DEVICE_SLOT).getRandomSource();
+        DeviceSelector.Draw draw = deviceSelector.newDraw();
+        DeviceProfile[] devices = new DeviceProfile[count];
+        for (int i = 0; i < count; i++) {
+            devices[i] = draw.next(random);
+        }
+        return devices;
+    }
+    
+    private static boolean isEnabled(Map<String, Object> template, String key) {
+        return Boolean.TRUE.equals(template.get(key));
+    }
+    
+    private static String uniqueValue(Set<String> seen, IdentityGenerator generator, String key) {
+        for (int attempt = 0; attempt < MAX_COLLISION_RETRIES; attempt++) {
+            String value = generator.generateForKey(key);
+            if (seen.add(value)) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Could not generate a unique " + key + " after "
+                + MAX_COLLISION_RETRIES + " attempts");
+    }
+    
+    private static class Batch {
+        final Map<String, Object> template;
+        final int count;
+        // Indexed by clone; null when clones keep the template's build props
+        final DeviceProfile[] devices;
+        final boolean spoofLocation;
+        // A relative install time is an offset in the template's unit, not a timestamp to randomize
+        final boolean changeInstallTime;
+        final Sink sink;
+        final ProgressListener listener;
+        final long startedAt = System.currentTimeMillis();
+        final AtomicInteger completed = new AtomicInteger();
+        // Values handed out so far in this batch, per identity toggle the template enables
+        final Map<String, Set<String>> seenValues = new LinkedHashMap<>();
+        
+        Batch(Map<String, Object> template, int count, DeviceProfile[] devices, Sink sink, ProgressListener listener) {
+            this.template = template;
+            this.count = count;
+            this.devices = devices;
+            this.sink = sink;
+            this.listener = listener;
+            this.spoofLocation = isEnabled(template, KEY_SPOOF_LOCATION);
+            this.changeInstallTime = isEnabled(template, KEY_CHANGE_INSTALL_TIME)
+                    && !isEnabled(template, KEY_RELATIVE_INSTALL_TIME);
+            for (String key : IdentityGenerator.IDENTITY_KEYS) {
+                if (isEnabled(template, key) && SettingSchema.forKey(key).getValueKey() != null) {
+                    seenValues.put(key, Collections.newSetFromMap(new ConcurrentHashMap<>()));
+                }
+            }
+        }
+    }
+    
+    private class CloneTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final Batch batch;
+        private final int from;
+        private final int to;
+        
+        CloneTask(Batch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= CLONES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    writeClone(i);
+                }
+                return;
+            }
+            
+            int middle = (from + to) >>> 1;
+            invokeAll(new CloneTask(batch, from, middle), new CloneTask(batch, middle, to));
+        }
+        
+        private void writeClone(int index) {
+            try {
+                batch.sink.write(index, buildClone(batch, index));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            
+            int completed = batch.completed.incrementAndGet();
+            if (batch.listener != null) {
+                batch.listener.onCloneWritten(completed, batch.count);
+            }
+        }
+    }
+    
+    static final class DefaultPool {
+        // Daemon workers, created on first use; idle ones time out
+        static final ForkJoinPool INSTANCE = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+}
\ No newline at end of file
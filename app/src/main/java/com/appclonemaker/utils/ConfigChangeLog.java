@@ -0,0 +1,167 @@
+package com.appclonemaker.utils;
+
+import com.appclonemaker.model.ConfigModel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of setting changes made since the last full snapshot, so
+ * saving after a single edit writes that edit instead of the whole config.
+ *
+ * <p>The file starts with {@code "ACML"} and the checksum of the snapshot the
+ * changes apply to; a log written against any other snapshot is ignored on
+ * replay and replaced on the next append. Each record is its length, its
+ * CRC32 and a payload from {@link ConfigSnapshot#encodeChange}. A record torn
+ * by a crash mid-append ends the replay, and everything before it applies;
+ * the torn tail is cut off before the next append, so later records stay
+ * reachable.
+ *
+ * <p>Appends must come from one thread at a time, the config writer's;
+ * replay only reads and may run on another thread.
+ */
+public class ConfigChangeLog {
+    
+    private static final int MAGIC = 0x41434D4C; // "ACML"
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    
+    private final File file;
+    // Records up to validLength bytes; the rest is a torn append to cut off.
+    // Negative until known; only the appending thread touches it
+    private long validLength = -1;
+    
+    public ConfigChangeLog(File file) {
+        this.file = file;
+    }
+    
+    public long length() {
+        return file.length();
+    }
+    
+    /**
+     * Appends change records and syncs them; call on the writer thread.
+     * Returns the number of bytes written.
+     */
+    public long append(List<byte[]> records, int snapshotChecksum) throws IOException {
+        boolean fresh = !file.exists() || readBase() != snapshotChecksum;
+        if (!fresh && validLength < 0) {
+            validLength = HEADER_SIZE;
+            scan(null);
+        }
+        long start = fresh ? 0 : validLength;
+        
+        FileOutputStream out = new FileOutputStream(file, !fresh);
+        try {
+            FileChannel channel = out.getChannel();
+            if (channel.size() > start) {
+                channel.truncate(start);
+            }
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            if (fresh) {
+                data.writeInt(MAGIC);
+                data.writeInt(snapshotChecksum);
+            }
+            CRC32 crc = new CRC32();
+            for (byte[] record : records) {
+                crc.reset();
+                crc.update(record, 0, record.length);
+                data.writeInt(record.length);
+                data.writeInt((int) crc.getValue());
+                data.write(record);
+            }
+            data.flush();
+            channel.force(true);
+            validLength = start + data.size();
+            return data.size();
+        } finally {
+            out.close();
+        }
+    }
+    
+    /**
+     * Applies every intact record to {@code model} if the log belongs to the
+     * snapshot with {@code snapshotChecksum}. Returns the number of records
+     * applied.
+     */
+    public int replay(int snapshotChecksum, ConfigModel model) throws IOException {
+        if (!file.exists() || file.length() < HEADER_SIZE || readBase() != snapshotChecksum) {
+            return 0;
+        }
+        return scan(model);
+    }
+    
+    /**
+     * Reads the intact records, applying each one to {@code model}, or when
+     * it is null recording where they end for the next append. Returns the
+     * number applied.
+     */
+    private int scan(ConfigModel model) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.position(HEADER_SIZE);
+            
+            int applied = 0;
+            CRC32 crc = new CRC32();
+            byte[] record = new byte[256];
+            while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                int length = buffer.getInt();
+                int expectedCrc = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    break;
+                }
+                if (length > record.length) {
+                    record = new byte[length];
+                }
+                buffer.get(record, 0, length);
+                
+                crc.reset();
+                crc.update(record, 0, length);
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+                if (model == null) {
+                    validLength = buffer.position();
+                } else if (ConfigSnapshot.applyChange(ByteBuffer.wrap(record, 0, length), model)) {
+                    applied++;
+                }
+            }
+            return applied;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Malformed change log " + file, e);
+        }
+    }
+    
+    /** Drops all records, once a snapshot containing them has been written. */
+    public void clear() {
+        file.delete();
+        validLength = -1;
+    }
+    
+    private int readBase() throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] header = new byte[HEADER_SIZE];
+            int read = 0;
+            while (read < HEADER_SIZE) {
+                int count = in.read(header, read, HEADER_SIZE - read);
+                if (count < 0) {
+                    // A header torn by a crash: treat as a log for some other snapshot
+                    return ~0;
+                }
+                read += count;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(header);
+            return buffer.getInt() == MAGIC ? buffer.getInt() : ~0;
+        }
+    }
+}
\ No newline at end of file
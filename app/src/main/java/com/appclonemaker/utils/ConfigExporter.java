@@ -0,0 +1,256 @@
+package com.appclonemaker.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams configs to disk one at a time, either as files in a directory or as
+ * entries of a single ZIP. Each config is serialized through a
+ * {@link JsonWriter} straight into a fixed-size buffer, so exporting hundreds
+ * of configs never holds more than one of them, and never as a String.
+ *
+ * <p>Writes are serialized, so one exporter can be fed from the pool threads
+ * of a {@link CloneBatchGenerator}. A ZIP is built in a temp file and only
+ * moved into place by {@link #close()} once every entry was written.
+ */
+public abstract class ConfigExporter implements Closeable {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    public interface ProgressListener {
+        /** Called on the exporting thread after each config is written. */
+        void onConfigExported(int completed, int total);
+    }
+    
+    private final Gson gson = new Gson();
+    private final int total;
+    private final ProgressListener listener;
+    private int completed;
+    private boolean failed;
+    private boolean escapeStrings;
+    
+    ConfigExporter(int total, ProgressListener listener) {
+        this.total = total;
+        this.listener = listener;
+    }
+    
+    /** One file per config under {@code directory}, each replaced atomically. */
+    public static ConfigExporter toDirectory(File directory, int total, ProgressListener listener) {
+        return new DirectoryExporter(directory, total, listener);
+    }
+    
+    /** One ZIP holding every config; appears at {@code zipFile} only when complete. */
+    public static ConfigExporter toZip(File zipFile, int total, ProgressListener listener) throws IOException {
+        return new ZipExporter(zipFile, total, listener);
+    }
+    
+    /**
+     * Escapes backslashes, quotes and line breaks in every config written, as
+     * the {@code configs/} backup has always been stored. Call before the
+     * first {@link #write}; returns this exporter.
+     */
+    public final ConfigExporter withStringEscaping() {
+        escapeStrings = true;
+        return this;
+    }
+    
+    /**
+     * Writes one config as {@code name}, a path relative to the export root
+     * such as {@code clone001/com.example_cloneSettings.json}.
+     */
+    public final synchronized void write(String name, Map<String, Object> config) throws IOException {
+        try {
+            writeEntry(name, config);
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+        
+        completed++;
+        if (listener != null) {
+            listener.onConfigExported(completed, total);
+        }
+    }
+    
+    /** Makes {@link #close()} discard the export, e.g. when producing configs failed. */
+    public final synchronized void abort() {
+        failed = true;
+    }
+    
+    @Override
+    public final synchronized void close() throws IOException {
+        finish(!failed);
+    }
+    
+    abstract void writeEntry(String name, Map<String, Object> config) throws IOException;
+    
+    abstract void finish(boolean commit) throws IOException;
+    
+    void writeJson(Writer writer, Map<String, Object> config) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(escapeStrings ? new EscapingWriter(writer) : writer);
+        gson.toJson(config, Map.class, jsonWriter);
+        jsonWriter.flush();
+    }
+    
+    /** Escapes the JSON as it streams through, instead of on a String of the whole config. */
+    private static class EscapingWriter extends FilterWriter {
+        
+        EscapingWriter(Writer out) {
+            super(out);
+        }
+        
+        @Override
+        public void write(int c) throws IOException {
+            String escape = escape((char) c);
+            if (escape != null) {
+                out.write(escape);
+            } else {
+                out.write(c);
+            }
+        }
+        
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            int run = offset;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                String escape = escape(chars[i]);
+                if (escape != null) {
+                    out.write(chars, run, i - run);
+                    out.write(escape);
+                    run = i + 1;
+                }
+            }
+            out.write(chars, run, end - run);
+        }
+        
+        @Override
+        public void write(String string, int offset, int length) throws IOException {
+            int run = offset;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                String escape = escape(string.charAt(i));
+                if (escape != null) {
+                    out.write(string, run, i - run);
+                    out.write(escape);
+                    run = i + 1;
+                }
+            }
+            out.write(string, run, end - run);
+        }
+        
+        private static String escape(char c) {
+            switch (c) {
+                case '\\':
+                    return "\\\\";
+                case '"':
+                    return "\\\"";
+                case '\n':
+                    return "\\n";
+                case '\r':
+                    return "\\r";
+                case '\t':
+                    return "\\t";
+                default:
+                    return null;
+            }
+        }
+    }
+    
+    private static class DirectoryExporter extends ConfigExporter {
+        private final File directory;
+        
+        DirectoryExporter(File directory, int total, ProgressListener listener) {
+            super(total, listener);
+            this.directory = directory;
+        }
+        
+        @Override
+        void writeEntry(String name, Map<String, Object> config) throws IOException {
+            File target = new File(directory, name);
+            File parent = target.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Could not create " + parent);
+            }
+            SafeFileWriter.write(target, writer -> writeJson(writer, config));
+        }
+        
+        @Override
+        void finish(boolean commit) {
+            // Every file was already moved into place as it was written
+        }
+    }
+    
+    private static class ZipExporter extends ConfigExporter {
+        private final File target;
+        private final File temp;
+        private final FileOutputStream fileOut;
+        private final ZipOutputStream zip;
+        private final Writer writer;
+        
+        ZipExporter(File target, int total, ProgressListener listener) throws IOException {
+            super(total, listener);
+            this.target = target;
+            this.temp = SafeFileWriter.getTempFile(target);
+            this.fileOut = new FileOutputStream(temp);
+            this.zip = new ZipOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE));
+            // Never closed on its own: closing it would close the ZIP stream
+            this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+        }
+        
+        @Override
+        void writeEntry(String name, Map<String, Object> config) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            writeJson(writer, config);
+            writer.flush();
+            zip.closeEntry();
+        }
+        
+        @Override
+        void finish(boolean commit) throws IOException {
+            if (!commit) {
+                discard();
+                return;
+            }
+            
+            try {
+                zip.finish();
+                zip.flush();
+                fileOut.getChannel().force(true);
+                zip.close();
+            } catch (IOException e) {
+                discard();
+                throw e;
+            }
+            SafeFileWriter.commit(temp, target);
+        }
+        
+        private void discard() throws IOException {
+            try {
+                // Only closing the ZIP stream releases its native deflater
+                zip.close();
+            } catch (IOException e) {
+                // The partial ZIP is deleted anyway
+            } finally {
+                try {
+                    fileOut.close();
+                } finally {
+                    temp.delete();
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
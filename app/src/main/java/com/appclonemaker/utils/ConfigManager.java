@@ -4,58 +4,275 @@ import android.content.Context;
 import android.content.SharedPreferences;
 
 import com.appclonemaker.model.Category;
+import com.appclonemaker.model.ConfigModel;
 import com.appclonemaker.model.Setting;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.reflect.Type;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.UUID;
 
 public class ConfigManager {
     
+    /**
+     * Everything one save persists, captured on the calling thread so the
+     * writer never reads settings the UI may be changing. A full save carries
+     * the whole tree; an incremental one only the changed settings, appended
+     * to the change log of the current snapshot.
+     */
+    private static class SaveRequest {
+        // Null when only changes are saved
+        final byte[] snapshot;
+        final Map<String, Object> config;
+        final List<byte[]> changes;
+        
+        private SaveRequest(byte[] snapshot, Map<String, Object> config, List<byte[]> changes) {
+            this.snapshot = snapshot;
+            this.config = config;
+            this.changes = changes;
+        }
+        
+        static SaveRequest full(List<Category> categories) {
+            SaveRequest request = new SaveRequest(ConfigSnapshot.encode(categories),
+                    ConfigMapBuilder.build(categories), new ArrayList<>());
+            for (Category category : categories) {
+                markClean(category.getSettings());
+            }
+            return request;
+        }
+        
+        static SaveRequest changes(List<byte[]> changes) {
+            return new SaveRequest(null, null, changes);
+        }
+        
+        /** Coalesces two pending saves without dropping the older one's changes. */
+        static SaveRequest merge(SaveRequest older, SaveRequest newer) {
+            if (newer.snapshot != null) {
+                // A full save already contains every earlier change
+                return newer;
+            }
+            List<byte[]> changes = new ArrayList<>(older.changes);
+            changes.addAll(newer.changes);
+            return new SaveRequest(older.snapshot, older.config, changes);
+        }
+    }
+    
     private Context context;
     private SharedPreferences prefs;
     private Gson gson;
+    private ConfigWriter<SaveRequest> configWriter;
+    private File snapshotFile;
+    private ConfigChangeLog changeLog;
+    private IdentityGenerator identityGenerator;
+    private final SaveMetrics saveMetrics = new SaveMetrics();
+    // Set until a snapshot has been loaded or written, again once the log is due
+    // for compaction and after a failed save. Written only by the writer thread;
+    // a caller that reads it stale saves once more in the other mode, which is harmless
+    private volatile boolean needsFullSave = true;
+    // Set after a failed save until a full save succeeds; also written only by the writer
+    private volatile boolean saveFailed;
+    // Changes appended since the last snapshot; only touched on the writer thread
+    private int changesSinceSnapshot;
     
     private static final String PREFS_NAME = "AppCloneMakerPrefs";
+    // Where older versions kept the serialized config; only read to migrate it into the snapshot
     private static final String KEY_CONFIG = "current_config";
+    private static final String SNAPSHOT_FILE = "current_config.snap";
+    private static final String CHANGE_LOG_FILE = "current_config.log";
+    // Past this many logged changes an incremental save compacts into a new snapshot
+    private static final int COMPACT_AFTER_CHANGES = 256;
     private static final String KEY_PACKAGE_NAME = "package_name";
     private static final String KEY_SPLIT_COUNT = "split_count";
+    private static final String CONFIGS_DIR = "configs";
+    private static final String EXPORTS_DIR = "exports";
+    private static final String CLONE_SETTINGS_SUFFIX = "_cloneSettings.json";
     
     public ConfigManager(Context context) {
         this.context = context;
         this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         this.gson = new Gson();
+        this.configWriter = new ConfigWriter<>(this::writeSnapshot, SaveRequest::merge);
+        this.snapshotFile = new File(context.getFilesDir(), SNAPSHOT_FILE);
+        this.changeLog = new ConfigChangeLog(new File(context.getFilesDir(), CHANGE_LOG_FILE));
+        this.identityGenerator = IdentityGenerator.fast();
+    }
+    
+    /**
+     * Saves the configuration on the background writer. The snapshot is taken
+     * now, on the calling thread; the callback runs on the main thread with
+     * the outcome of the write that included it.
+     */
+    public void saveConfigurationAsync(List<Category> categories, ConfigWriter.SaveCallback callback) {
+        configWriter.submit(SaveRequest.full(categories), callback);
     }
     
-    public boolean saveConfiguration() {
+    /**
+     * Saves on the background writer, like {@link #saveConfigurationAsync},
+     * and blocks until the write is done; call only off the main thread.
+     */
+    public boolean saveConfiguration(List<Category> categories) {
         try {
-            // Get current configuration from the app
-            Map<String, Object> config = buildConfigurationMap();
+            return configWriter.submitAndWait(SaveRequest.full(categories));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * Saves only the settings changed since the last save, as records appended
+     * to the change log, so the cost follows the number of edits rather than
+     * the size of the config. Without a loaded snapshot to append to, after
+     * {@value #COMPACT_AFTER_CHANGES} changes were logged and after a failed
+     * save it writes the whole tree instead.
+     * Like {@link #saveConfigurationAsync}, reads the settings on the calling
+     * thread; when nothing changed and no save failed, nothing is written and
+     * the callback runs immediately.
+     */
+    public void saveChangesAsync(List<Category> categories, ConfigWriter.SaveCallback callback) {
+        List<byte[]> changes = new ArrayList<>();
+        for (Category category : categories) {
+            collectChanges(category.getName(), category.getSettings(), changes);
+        }
+        
+        if (changes.isEmpty() && !saveFailed) {
+            saveMetrics.recordSkipped();
+            if (callback != null) {
+                callback.onSaveComplete(true);
+            }
+        } else if (needsFullSave) {
+            configWriter.submit(SaveRequest.full(categories), callback);
+        } else {
+            configWriter.submit(SaveRequest.changes(changes), callback);
+        }
+    }
+    
+    /** Durations and sizes of the saves made through this instance. */
+    public SaveMetrics getSaveMetrics() {
+        return saveMetrics;
+    }
+    
+    private static void collectChanges(String categoryName, List<Setting> settings, List<byte[]> changes) {
+        for (Setting setting : settings) {
+            if (setting.isDirty()) {
+                changes.add(ConfigSnapshot.encodeChange(categoryName, setting));
+                setting.markClean();
+            }
+            if (setting.getChildSettings() != null) {
+                collectChanges(categoryName, setting.getChildSettings(), changes);
+            }
+        }
+    }
+    
+    private static void markClean(List<Setting> settings) {
+        for (Setting setting : settings) {
+            setting.markClean();
+            if (setting.getChildSettings() != null) {
+                markClean(setting.getChildSettings());
+            }
+        }
+    }
+    
+    private boolean writeSnapshot(SaveRequest request) {
+        long startNanos = System.nanoTime();
+        try {
+            long bytes = 0;
+            int snapshotChecksum;
+            if (request.snapshot != null) {
+                // The binary snapshot of the whole tree is the primary copy. Its
+                // checksum no longer matches the log, so the log is dead from here
+                ConfigSnapshot.write(snapshotFile, request.snapshot);
+                changeLog.clear();
+                changesSinceSnapshot = 0;
+                needsFullSave = false;
+                snapshotChecksum = ConfigSnapshot.checksumOf(request.snapshot);
+                bytes += request.snapshot.length;
+            } else {
+                snapshotChecksum = ConfigSnapshot.readChecksum(snapshotFile);
+            }
             
-            // Save to SharedPreferences
-            String configJson = gson.toJson(config);
-            prefs.edit().putString(KEY_CONFIG, configJson).apply();
+            if (!request.changes.isEmpty()) {
+                bytes += changeLog.append(request.changes, snapshotChecksum);
+                changesSinceSnapshot += request.changes.size();
+            }
+            if (changesSinceSnapshot >= COMPACT_AFTER_CHANGES) {
+                // Compact on the next save; the tree can only be encoded on the thread that edits it
+                needsFullSave = true;
+            }
             
-            // Save to file as backup
-            saveToFile(config);
+            // Save to file as backup; refreshed only with full snapshots
+            if (request.config != null) {
+                if (!saveToFile(request.config)) {
+                    // Retried with the next save, even one with no changes
+                    needsFullSave = true;
+                    saveFailed = true;
+                    saveMetrics.recordFailure();
+                    return false;
+                }
+                bytes += getBackupFile().length();
+                saveFailed = false;
+            }
             
+            saveMetrics.recordSave(request.snapshot != null, System.nanoTime() - startNanos, bytes);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
+            // The changes in this request are marked clean already: rewrite everything next time
+            needsFullSave = true;
+            saveFailed = true;
+            saveMetrics.recordFailure();
             return false;
         }
     }
     
-    public String exportConfiguration(List<Category> categories) {
-        Map<String, Object> config = buildConfigurationMap(categories);
-        return gson.toJson(config, Map.class);
+    /**
+     * Streams the configuration to {@code exports/<package>_cloneSettings.json}.
+     * {@code config} is built with {@link ConfigMapBuilder} on the thread that
+     * edits the settings. Blocks; call only off the main thread.
+     */
+    public File exportConfiguration(Map<String, Object> config) throws IOException {
+        File exportDir = getExternalDir(EXPORTS_DIR);
+        String fileName = resolvePackageName() + CLONE_SETTINGS_SUFFIX;
+        try (ConfigExporter exporter = ConfigExporter.toDirectory(exportDir, 1, null)) {
+            exporter.write(fileName, config);
+        }
+        return new File(exportDir, fileName);
+    }
+    
+    /**
+     * Generates {@link #getSplitCount()} randomized clones straight into
+     * {@code exports/<package>_clones.zip}, one
+     * {@code cloneNNN/<package>_cloneSettings.json} entry per clone, in the
+     * same JSON format as {@link #exportConfiguration}. Clones are streamed
+     * into the ZIP as they are generated. Blocks; call only off the main
+     * thread.
+     */
+    public File exportCloneBatch(List<Category> categories, ConfigExporter.ProgressListener listener)
+            throws IOException {
+        String packageName = resolvePackageName();
+        File zipFile = new File(getExternalDir(EXPORTS_DIR), packageName + "_clones.zip");
+        int count = getSplitCount();
+        
+        Map<String, Object> template = ConfigMapBuilder.build(categories);
+        ConfigExporter exporter = ConfigExporter.toZip(zipFile, count, listener);
+        try {
+            newCloneBatchGenerator(template).generate(template, count, (index, clone) -> {
+                String entryName = String.format(Locale.US, "clone%03d/%s%s", index + 1, packageName, CLONE_SETTINGS_SUFFIX);
+                exporter.write(entryName, clone);
+            }, null);
+        } catch (IOException | RuntimeException e) {
+            exporter.abort();
+            throw e;
+        } finally {
+            exporter.close();
+        }
+        return zipFile;
     }
     
     public void setPackageName(String packageName) {
@@ -74,301 +291,150 @@ public class ConfigManager {
         return prefs.getInt(KEY_SPLIT_COUNT, 101);
     }
     
-    private Map<String, Object> buildConfigurationMap() {
-        // This would typically get the current state from the UI
-        // For now, return a sample configuration
-        Map<String, Object> config = new HashMap<>();
-        
-        // Add various settings based on the HTML structure
-        config.put("changeAndroidId", true);
-        config.put("changeImei", false);
-        config.put("changeAndroidSerial", false);
-        config.put("changeWifiMacAddress", false);
-        config.put("changeBluetoothMacAddress", false);
-        config.put("changeImsi", false);
-        config.put("changeGoogleAdvertisingId", false);
-        config.put("changeGoogleServiceFrameworkId", false);
-        config.put("changeFacebookAttributionId", false);
-        config.put("changeAppSetId", false);
-        config.put("changeOpenId", false);
-        config.put("changeAmazonAdvertisingId", false);
-        config.put("changeHuaweiAdvertisingId", false);
-        config.put("changeLocale", "en_US");
-        config.put("changeEthernetMacAddress", false);
-        
-        // Add more settings as needed...
-        
-        return config;
+    /**
+     * Draws devices matching the database filters set in {@code template},
+     * waiting for the device catalogue if it is still loading.
+     */
+    private CloneBatchGenerator newCloneBatchGenerator(Map<String, Object> template) throws IOException {
+        DeviceProfileManager devices;
+        try {
+            devices = DeviceProfileManager.getInstance().awaitLoaded();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading device profiles");
+        }
+        DeviceSelector selector = devices.newDeviceSelector(DeviceSelector.filterFor(template), DeviceSelector.UNIFORM);
+        return new CloneBatchGenerator(identityGenerator, selector);
     }
     
-    private Map<String, Object> buildConfigurationMap(List<Category> categories) {
-        Map<String, Object> config = new HashMap<>();
-        
-        for (Category category : categories) {
-            for (Setting setting : category.getSettings()) {
-                processSettingForConfig(config, setting);
-            }
+    private File getExternalDir(String name) {
+        File dir = new File(context.getExternalFilesDir(null), name);
+        if (!dir.exists()) {
+            dir.mkdirs();
         }
-        
-        return config;
+        return dir;
     }
     
-    private void processSettingForConfig(Map<String, Object> config, Setting setting) {
-        String key = setting.getKey();
-        Object value = setting.getValue();
-        
-        // Handle special cases based on setting type and key
-        if (setting.hasCustomEditor()) {
-            handleCustomSetting(config, setting);
-        } else if (setting.getType() == Setting.SettingType.BOOLEAN) {
-            config.put(key, setting.isEnabled());
-        } else if (setting.getType() == Setting.SettingType.STRING) {
-            config.put(key, value != null ? value.toString() : "");
-        } else if (setting.getType() == Setting.SettingType.NUMBER) {
-            config.put(key, value != null ? value : 0);
-        } else if (setting.getType() == Setting.SettingType.ARRAY) {
-            config.put(key, value);
-        } else if (setting.getType() == Setting.SettingType.DROPDOWN) {
-            config.put(key, value);
-        }
+    private String resolvePackageName() {
+        String packageName = getPackageName();
+        return packageName.isEmpty() ? "unknown_package" : packageName;
     }
     
-    private void handleCustomSetting(Map<String, Object> config, Setting setting) {
-        String key = setting.getKey();
-        Object value = setting.getValue();
-        
-        switch (key) {
-            case "bundleAppData":
-                config.put("bundleAppData", setting.isEnabled());
-                if (setting.isEnabled()) {
-                    config.put("bundleAppDataPath", getValueFromSetting("bundleAppDataPath", setting));
-                    config.put("bundleAppDataPassword", getValueFromSetting("bundleAppDataPassword", setting));
-                }
-                break;
-                
-            case "deleteOnExit":
-                config.put("deleteOnExit", setting.isEnabled());
-                if (setting.isEnabled()) {
-                    config.put("deleteFilesDirectoriesOnExit", getValueFromSetting("deleteFilesDirectoriesOnExit", setting));
-                    config.put("securelyDeleteFilesDirectoriesOnExit", getValueFromSetting("securelyDeleteFilesDirectoriesOnExit", setting));
-                }
-                break;
-                
-            case "spoofLocation":
-                config.put("spoofLocation", setting.isEnabled());
-                if (setting.isEnabled()) {
-                    config.put("spoofLocationLatitude", getValueFromSetting("spoofLocationLatitude", setting));
-                    config.put("spoofLocationLongitude", getValueFromSetting("spoofLocationLongitude", setting));
-                }
-                break;
-                
-            case "buildsProps":
-                config.put("buildsProps", setting.isEnabled());
-                if (setting.isEnabled()) {
-                    config.put("buildPropsDeviceName", getValueFromSetting("buildPropsDeviceName", setting));
-                    config.put("buildPropsManufacturer", getValueFromSetting("buildPropsManufacturer", setting));
-                    config.put("buildPropsBrand", getValueFromSetting("buildPropsBrand", setting));
-                    config.put("buildPropsModel", getValueFromSetting("buildPropsModel", setting));
-                }
-                break;
-                
-            case "webViewUrlDataFilterList":
-                config.put("webViewUrlDataFilterList", value);
-                break;
-                
-            case "overrideSharedPreferences":
-                config.put("overrideSharedPreferences", value);
-                break;
-                
-            case "customBuildProps":
-                config.put("customBuildProps", value);
-                break;
-                
-            case "webViewCookies":
-                config.put("webViewCookies", value);
-                break;
-                
-            case "hostsBlocker":
-                config.put("hostsBlocker", setting.isEnabled());
-                break;
-                
-            default:
-                // Handle other custom settings
-                config.put(key, value);
-                break;
+    private File getBackupFile() {
+        return new File(getExternalDir(CONFIGS_DIR), resolvePackageName() + CLONE_SETTINGS_SUFFIX);
+    }
+    
+    private boolean saveToFile(Map<String, Object> config) {
+        // Escaped as backups always were; each file is written to a temp file,
+        // fsynced and renamed, so a crash never leaves a half-written backup
+        try (ConfigExporter exporter = ConfigExporter.toDirectory(getExternalDir(CONFIGS_DIR), 1, null)
+                .withStringEscaping()) {
+            exporter.write(resolvePackageName() + CLONE_SETTINGS_SUFFIX, config);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
         }
     }
     
-    private Object getValueFromSetting(String childKey, Setting parentSetting) {
-        // This would look up the child setting value
-        // For now, return a default value
-        return "";
+    /**
+     * The saved categories, or null when nothing has been saved yet. The saved
+     * values are merged onto the defaults parsed from the schema, so the schema
+     * itself always comes from the current version. A config saved as JSON by
+     * older versions is migrated into the snapshot first.
+     */
+    public List<Category> loadCategories() {
+        if (snapshotFile.exists()) {
+            try {
+                ConfigModel model = new ConfigModel(JsonParser.parseConfiguration());
+                ConfigSnapshot.readInto(snapshotFile, model);
+                int loggedChanges = replayChanges(model);
+                // Later saves append to this snapshot's log; queued ahead of them
+                ConfigWriter.getExecutor().execute(() -> resumeChangeLog(loggedChanges));
+                for (Category category : model.getCategories()) {
+                    markClean(category.getSettings());
+                }
+                return new ArrayList<>(model.getCategories());
+            } catch (IOException e) {
+                // Unreadable snapshot: fall back to whatever older copy exists
+                e.printStackTrace();
+            }
+        }
+        
+        return migrateLegacyConfiguration();
     }
     
-    private void saveToFile(Map<String, Object> config) {
+    /**
+     * Applies the changes saved since the snapshot was written on top of it
+     * and returns how many there were, or -1 when the log could not be read.
+     */
+    private int replayChanges(ConfigModel model) {
         try {
-            File configDir = new File(context.getExternalFilesDir(null), "configs");
-            if (!configDir.exists()) {
-                configDir.mkdirs();
-            }
-            
-            String packageName = getPackageName();
-            if (packageName.isEmpty()) {
-                packageName = "unknown_package";
-            }
-            
-            File configFile = new File(configDir, packageName + "_cloneSettings.json");
-            
-            try (FileWriter writer = new FileWriter(configFile)) {
-                String json = gson.toJson(config, Map.class);
-                // Apply Unicode escaping like in the original
-                json = applyUnicodeEscaping(json);
-                writer.write(json);
-            }
-            
+            return changeLog.replay(ConfigSnapshot.readChecksum(snapshotFile), model);
         } catch (IOException e) {
+            // Keep the snapshot; only the changes after it are lost
             e.printStackTrace();
+            return -1;
         }
     }
     
-    private String applyUnicodeEscaping(String json) {
-        // Apply Unicode escaping for special characters
-        return json.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
+    /**
+     * Lets incremental saves continue the change log of the snapshot just
+     * loaded, which already holds {@code loggedChanges} changes. Runs on the
+     * writer thread.
+     */
+    private void resumeChangeLog(int loggedChanges) {
+        changesSinceSnapshot = Math.max(loggedChanges, 0);
+        // An unreadable log is rewritten by a full save
+        needsFullSave = saveFailed || loggedChanges < 0 || loggedChanges >= COMPACT_AFTER_CHANGES;
     }
     
-    public Map<String, Object> loadConfiguration() {
-        String configJson = prefs.getString(KEY_CONFIG, "");
-        if (configJson.isEmpty()) {
-            return new HashMap<>();
+    /**
+     * Moves the flat key/value config older versions kept in SharedPreferences
+     * into the snapshot, applied on top of the defaults, so the preferences
+     * file goes back to holding only small values. Returns null when there is
+     * nothing to migrate. Blocks on the writer; call only off the main thread.
+     */
+    private List<Category> migrateLegacyConfiguration() {
+        String legacyJson = prefs.getString(KEY_CONFIG, null);
+        if (legacyJson == null || legacyJson.isEmpty()) {
+            return null;
         }
         
+        Map<String, Object> legacy;
         try {
             Type type = new TypeToken<Map<String, Object>>(){}.getType();
-            return gson.fromJson(configJson, type);
-        } catch (Exception e) {
+            legacy = gson.fromJson(legacyJson, type);
+        } catch (RuntimeException e) {
+            // Keep the preference; there is nothing else to fall back to
             e.printStackTrace();
-            return new HashMap<>();
+            return null;
         }
-    }
-    
-    public void generateRandomValue(Setting setting) {
-        String key = setting.getKey();
-        String randomValue = "";
-        
-        switch (key) {
-            case "changeAndroidId":
-                randomValue = generateHex(16);
-                break;
-            case "changeImei":
-                randomValue = generateLuhnCheckedImei();
-                break;
-            case "changeAndroidSerial":
-                randomValue = Math.random() > 0.5 ? generateAlphanum(12) : generateHex(16);
-                break;
-            case "changeWifiMacAddress":
-            case "changeBluetoothMacAddress":
-            case "changeEthernetMacAddress":
-                randomValue = generateMacAddress();
-                break;
-            case "changeGoogleAdvertisingId":
-            case "changeFacebookAttributionId":
-            case "changeAppSetId":
-            case "changeOpenId":
-            case "changeAmazonAdvertisingId":
-            case "changeHuaweiAdvertisingId":
-                randomValue = generateUuidV4();
-                break;
-            case "changeGoogleServiceFrameworkId":
-                randomValue = generateHex(16);
-                break;
-            default:
-                randomValue = "CUSTOM_" + UUID.randomUUID().toString().substring(0, 8);
-                break;
+        if (legacy == null || legacy.isEmpty()) {
+            return null;
         }
         
-        setting.setValue(randomValue);
-    }
-    
-    private String generateHex(int length) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            sb.append(Integer.toHexString((int)(Math.random() * 16)));
-        }
-        return sb.toString();
-    }
-    
-    private String generateAlphanum(int length) {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            sb.append(chars.charAt((int)(Math.random() * chars.length())));
+        ConfigModel model = new ConfigModel(JsonParser.parseConfiguration());
+        model.applyValues(legacy);
+        List<Category> categories = new ArrayList<>(model.getCategories());
+        // Only drop the old copy once the snapshot holds it
+        if (saveConfiguration(categories)) {
+            prefs.edit().remove(KEY_CONFIG).apply();
         }
-        return sb.toString();
-    }
-    
-    private String generateUuidV4() {
-        return UUID.randomUUID().toString();
-    }
-    
-    private String generateMacAddress() {
-        String[] ouiList = {"00:05:69", "00:1A:11", "00:E0:4C", "3C:5A:B4", "40:B8:9A", "BC:F5:AC", "D8:80:39"};
-        String oui = ouiList[(int)(Math.random() * ouiList.length)];
-        String host = String.format("%02X:%02X:%02X", 
-                (int)(Math.random() * 256), 
-                (int)(Math.random() * 256), 
-                (int)(Math.random() * 256));
-        return (oui + ":" + host).toUpperCase();
+        return categories;
     }
     
-    private String generateLuhnCheckedImei() {
-        StringBuilder imeiBase = new StringBuilder();
-        for (int i = 0; i < 14; i++) {
-            imeiBase.append((int)(Math.random() * 10));
-        }
-        
-        // Calculate Luhn check digit
-        int sum = 0;
-        for (int i = 0; i < imeiBase.length(); i++) {
-            int digit = Character.getNumericValue(imeiBase.charAt(i));
-            if (i % 2 == 1) { // Every second digit
-                digit *= 2;
-                if (digit > 9) {
-                    digit = (digit % 10) + 1;
-                }
-            }
-            sum += digit;
+    public void generateRandomValue(Setting setting) {
+        String randomValue = identityGenerator.generateForKey(setting.getKey());
+        if (randomValue == null) {
+            randomValue = "CUSTOM_" + identityGenerator.generateHex(8);
         }
         
-        int checkDigit = (10 - (sum % 10)) % 10;
-        return imeiBase.append(checkDigit).toString();
+        setting.setValue(randomValue);
     }
     
     public String generateRealisticLocation() {
         // Generate realistic coordinates on land masses
-        double[][] landmasses = {
-            // America (North & South)
-            {-56, 72, -168, -34},
-            // Europe  
-            {36, 71, -25, 45},
-            // Asia
-            {-11, 82, 25, 180},
-            // Australia
-            {-44, -10, 112, 154}
-        };
-        
-        int areaIndex = (int)(Math.random() * landmasses.length);
-        double[] area = landmasses[areaIndex];
-        
-        double latMin = area[0], latMax = area[1];
-        double lonMin = area[2], lonMax = area[3];
-        
-        double latitude = latMin + Math.random() * (latMax - latMin);
-        double longitude = lonMin + Math.random() * (lonMax - lonMin);
-        
-        return String.format("%.6f,%.6f", latitude, longitude);
+        return identityGenerator.generateLocation();
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.appclonemaker.utils;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.model.Setting;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flattens categories into the key/value map that is serialized as the
+ * clone config. Pure Java, so it can be benchmarked off-device.
+ */
+public final class ConfigMapBuilder {
+    
+    private ConfigMapBuilder() {
+    }
+    
+    public static Map<String, Object> build(List<Category> categories) {
+        Map<String, Object> config = new HashMap<>();
+        
+        for (Category category : categories) {
+            for (Setting setting : category.getSettings()) {
+                processSettingForConfig(config, setting);
+            }
+        }
+        
+        return config;
+    }
+    
+    private static void processSettingForConfig(Map<String, Object> config, Setting setting) {
+        String key = setting.getKey();
+        Object value = setting.getValue();
+        
+        // Handle special cases based on setting type and key
+        if (setting.hasCustomEditor()) {
+            handleCustomSetting(config, setting);
+        } else if (setting.getType() == Setting.SettingType.BOOLEAN) {
+            config.put(key, setting.isEnabled());
+        } else if (setting.getType() == Setting.SettingType.STRING) {
+            config.put(key, value != null ? value.toString() : "");
+        } else if (setting.getType() == Setting.SettingType.NUMBER) {
+            config.put(key, value != null ? value : 0);
+        } else if (setting.getType() == Setting.SettingType.ARRAY) {
+            config.put(key, value);
+        } else if (setting.getType() == Setting.SettingType.DROPDOWN) {
+            config.put(key, value);
+        }
+    }
+    
+    private static void handleCustomSetting(Map<String, Object> config, Setting setting) {
+        String key = setting.getKey();
+        Object value = setting.getValue();
+        
+        switch (key) {
+            case "bundleAppData":
+                config.put("bundleAppData", setting.isEnabled());
+                if (setting.isEnabled()) {
+                    config.put("bundleAppDataPath", getValueFromSetting("bundleAppDataPath", setting));
+                    config.put("bundleAppDataPassword", getValueFromSetting("bundleAppDataPassword", setting));
+                }
+                break;
+            
+            case "deleteOnExit":
+                config.put("deleteOnExit", setting.isEnabled());
+                if (setting.isEnabled()) {
+                    config.put("deleteFilesDirectoriesOnExit", getValueFromSetting("deleteFilesDirectoriesOnExit", setting));
+                    config.put("securelyDeleteFilesDirectoriesOnExit", getValueFromSetting("securelyDeleteFilesDirectoriesOnExit", setting));
+                }
+                break;
+            
+            case "spoofLocation":
+                config.put("spoofLocation", setting.isEnabled());
+                if (setting.isEnabled()) {
+                    config.put("spoofLocationLatitude", getValueFromSetting("spoofLocationLatitude", setting));
+                    config.put("spoofLocationLongitude", getValueFromSetting("spoofLocationLongitude", setting));
+                }
+                break;
+            
+            case "buildsProps":
+                config.put("buildsProps", setting.isEnabled());
+                if (setting.isEnabled()) {
+                    config.put("buildPropsDeviceName", getValueFromSetting("buildPropsDeviceName", setting));
+                    config.put("buildPropsManufacturer", getValueFromSetting("buildPropsManufacturer", setting));
+                    config.put("buildPropsBrand", getValueFromSetting("buildPropsBrand", setting));
+                    config.put("buildPropsModel", getValueFromSetting("buildPropsModel", setting));
+                }
+                break;
+            
+            case "webViewUrlDataFilterList":
+                config.put("webViewUrlDataFilterList", value);
+                break;
+            
+            case "overrideSharedPreferences":
+                config.put("overrideSharedPreferences", value);
+                break;
+            
+            case "customBuildProps":
+                config.put("customBuildProps", value);
+                break;
+            
+            case "webViewCookies":
+                config.put("webViewCookies", value);
+                break;
+            
+            case "hostsBlocker":
+                config.put("hostsBlocker", setting.isEnabled());
+                break;
+            
+            default:
+                // Handle other custom settings
+                config.put(key, value);
+                break;
+        }
+    }
+    
+    private static Object getValueFromSetting(String childKey, Setting parentSetting) {
+        // This would look up the child setting value
+        // For now, return a default value
+        return "";
+    }
+}
\ No newline at end of file
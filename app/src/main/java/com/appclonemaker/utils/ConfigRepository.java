@@ -0,0 +1,123 @@
+package com.appclonemaker.utils;
+
+import android.os.Trace;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.model.ConfigModel;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide holder of the parsed configuration. The configuration is
+ * parsed once on a background thread, started from Application.onCreate,
+ * and handed to screens through {@link #getConfig()}, so the UI thread never
+ * parses and the same model is shared instead of re-parsed per screen.
+ */
+public class ConfigRepository {
+    
+    public interface Source {
+        /** The saved categories, or null to start from the default configuration. */
+        List<Category> load();
+        
+        /**
+         * Saves the edits made to {@code categories} since they were loaded.
+         * Called on the main thread; the callback runs there too.
+         */
+        void save(List<Category> categories, ConfigWriter.SaveCallback callback);
+    }
+    
+    private static final String TRACE_PARSE = "ConfigRepository.parse";
+    
+    private static volatile ConfigRepository instance;
+    
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "config-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final MutableLiveData<ConfigModel> config = new MutableLiveData<>();
+    private boolean loadStarted;
+    private volatile Source source;
+    
+    private ConfigRepository() {
+    }
+    
+    public static ConfigRepository getInstance() {
+        if (instance == null) {
+            synchronized (ConfigRepository.class) {
+                if (instance == null) {
+                    instance = new ConfigRepository();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /** Where saved configurations are loaded from; set before the first load. */
+    public void setSource(Source source) {
+        this.source = source;
+    }
+    
+    /** Starts parsing in the background unless a load was already started. */
+    public synchronized void preload() {
+        if (loadStarted) {
+            return;
+        }
+        loadStarted = true;
+        loader.execute(this::load);
+    }
+    
+    /**
+     * Loads the saved configuration again and publishes the new model. Edits
+     * not saved yet are saved first, so the reload includes them instead of
+     * dropping them; if that save fails the current model is kept. Call on
+     * the main thread, where settings are edited.
+     */
+    public void reload() {
+        ConfigModel current = config.getValue();
+        Source saveTo = source;
+        if (current == null || saveTo == null) {
+            startLoad();
+            return;
+        }
+        saveTo.save(current.getCategories(), success -> {
+            if (success) {
+                startLoad();
+            }
+        });
+    }
+    
+    private synchronized void startLoad() {
+        loadStarted = true;
+        loader.execute(this::load);
+    }
+    
+    /** Emits the parsed model once it is available, and again after every reload. */
+    public LiveData<ConfigModel> getConfig() {
+        preload();
+        return config;
+    }
+    
+    /** The current model, or null while the first load is still running. */
+    public ConfigModel getLoadedConfig() {
+        return config.getValue();
+    }
+    
+    private void load() {
+        Trace.beginSection(TRACE_PARSE);
+        try {
+            List<Category> categories = source != null ? source.load() : null;
+            if (categories == null) {
+                categories = JsonParser.parseConfiguration();
+            }
+            config.postValue(new ConfigModel(categories));
+        } finally {
+            Trace.endSection();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,503 @@
+package com.appclonemaker.utils;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.model.ConfigModel;
+import com.appclonemaker.model.Setting;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the user's state in the category/setting tree, the
+ * format the configuration is persisted in. JSON stays the format for import
+ * and export.
+ *
+ * <p>Only what the user can change is stored: per category, each setting's
+ * key, enabled flag and value. Everything derived from the schema, such as
+ * names, types, descriptions and options, comes from the parsed defaults the
+ * snapshot is merged onto, so schema fixes reach existing users. Saved
+ * settings the schema no longer has are dropped; new ones keep their default.
+ *
+ * <p>Layout: {@code "ACMS"}, a version byte, the body length and the CRC32 of
+ * the body, then the body: a table of every distinct string, followed by the
+ * categories. Settings refer to strings by table index and encode integers as
+ * zig-zag varints. Values keep their Java type across a round trip, so an
+ * Integer stays an Integer instead of coming back as a Double.
+ *
+ * <p>Files are read through a read-only memory mapping.
+ */
+public final class ConfigSnapshot {
+    
+    private static final byte[] MAGIC = {'A', 'C', 'M', 'S'};
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 1 + 4 + 4;
+    private static final int CHECKSUM_OFFSET = HEADER_SIZE - 4;
+    
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_FALSE = 1;
+    private static final int VALUE_TRUE = 2;
+    private static final int VALUE_INT = 3;
+    private static final int VALUE_LONG = 4;
+    private static final int VALUE_DOUBLE = 5;
+    // A Double holding a whole number, stored as a varint and read back as a Double
+    private static final int VALUE_WHOLE_DOUBLE = 6;
+    private static final int VALUE_STRING = 7;
+    private static final int VALUE_LIST = 8;
+    private static final int VALUE_MAP = 9;
+    
+    private static final int SETTING_ENABLED = 1;
+    
+    private ConfigSnapshot() {
+    }
+    
+    public static byte[] encode(List<Category> categories) {
+        Encoder encoder = new Encoder(false);
+        encoder.writeCategories(categories);
+        
+        ByteSink body = new ByteSink(encoder.tree.size() + encoder.stringBytes * 2 + 64);
+        body.writeVarint(encoder.strings.size());
+        for (String string : encoder.strings.keySet()) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            body.writeVarint(utf8.length);
+            body.write(utf8, 0, utf8.length);
+        }
+        body.write(encoder.tree.buffer, 0, encoder.tree.size());
+        
+        CRC32 crc = new CRC32();
+        crc.update(body.buffer, 0, body.size());
+        
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + body.size());
+        out.put(MAGIC);
+        out.put((byte) FORMAT_VERSION);
+        out.putInt(body.size());
+        out.putInt((int) crc.getValue());
+        out.put(body.buffer, 0, body.size());
+        return out.array();
+    }
+    
+    /**
+     * Restores the saved value and enabled flag of every setting in the
+     * snapshot that {@code model} still has. Returns the number restored.
+     */
+    public static int decodeInto(ByteBuffer buffer, ConfigModel model) throws IOException {
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a configuration snapshot");
+            }
+            int version = buffer.get() & 0xFF;
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int bodyLength = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (bodyLength < 0 || bodyLength > buffer.remaining()) {
+                throw new IOException("Truncated snapshot: expected " + bodyLength
+                        + " bytes, found " + buffer.remaining());
+            }
+            
+            ByteBuffer body = buffer.slice();
+            body.limit(bodyLength);
+            if ((int) checksum(body.duplicate()) != expectedCrc) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            return new Decoder(body).readInto(model);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Malformed snapshot", e);
+        }
+    }
+    
+    /** Merges a snapshot file onto {@code model} as {@link #decodeInto} does. */
+    public static int readInto(File file, ConfigModel model) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            return decodeInto(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), model);
+        }
+    }
+    
+    public static void write(File file, byte[] snapshot) throws IOException {
+        SafeFileWriter.write(file, snapshot);
+    }
+    
+    /** The body checksum in the header of a snapshot file, without reading its body. */
+    public static int readChecksum(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            FileChannel channel = in.getChannel();
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Truncated snapshot header in " + file);
+                }
+            }
+            return header.getInt(CHECKSUM_OFFSET);
+        }
+    }
+    
+    /** The body checksum recorded in an encoded snapshot; identifies that snapshot. */
+    public static int checksumOf(byte[] snapshot) {
+        return ByteBuffer.wrap(snapshot).getInt(CHECKSUM_OFFSET);
+    }
+    
+    /**
+     * Encodes the mutable state of one setting, its value and enabled flag,
+     * as a self-contained record for {@link ConfigChangeLog}.
+     */
+    public static byte[] encodeChange(String categoryName, Setting setting) {
+        Encoder encoder = new Encoder(true);
+        encoder.writeString(categoryName);
+        encoder.writeString(setting.getKey());
+        encoder.tree.write(setting.isEnabled() ? SETTING_ENABLED : 0);
+        encoder.writeValue(setting.getValue());
+        return Arrays.copyOf(encoder.tree.buffer, encoder.tree.size());
+    }
+    
+    /**
+     * Applies a record from {@link #encodeChange} to the model. Returns false
+     * when the setting no longer exists.
+     */
+    public static boolean applyChange(ByteBuffer record, ConfigModel model) throws IOException {
+        try {
+            return new Decoder(record).applyChange(model);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Malformed change record", e);
+        }
+    }
+    
+    private static long checksum(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        while (body.hasRemaining()) {
+            int length = Math.min(chunk.length, body.remaining());
+            body.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        return crc.getValue();
+    }
+    
+    /** Sets a saved value and enabled flag on the setting with {@code key}, if the schema still has it. */
+    private static boolean restore(Category category, String key, boolean enabled, Object value) {
+        if (category == null) {
+            return false;
+        }
+        // Top-level settings are indexed; only child settings need the walk
+        Setting setting = category.getSetting(key);
+        if (setting == null) {
+            setting = findSetting(category.getSettings(), key);
+        }
+        if (setting == null) {
+            return false;
+        }
+        setting.setValue(value);
+        setting.setEnabled(enabled);
+        return true;
+    }
+    
+    private static Setting findSetting(List<Setting> settings, String key) {
+        for (Setting setting : settings) {
+            if (setting.getKey().equals(key)) {
+                return setting;
+            }
+            if (setting.getChildSettings() != null) {
+                Setting child = findSetting(setting.getChildSettings(), key);
+                if (child != null) {
+                    return child;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static int countSettings(List<Setting> settings) {
+        int count = settings.size();
+        for (Setting setting : settings) {
+            if (setting.getChildSettings() != null) {
+                count += countSettings(setting.getChildSettings());
+            }
+        }
+        return count;
+    }
+    
+    private static class Encoder {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final ByteSink tree;
+        // Change records stand alone, so they carry strings inline instead of by table index
+        final boolean inlineStrings;
+        int stringBytes;
+        
+        Encoder(boolean inlineStrings) {
+            this.inlineStrings = inlineStrings;
+            this.tree = new ByteSink(inlineStrings ? 64 : 4096);
+        }
+        
+        void writeCategories(List<Category> categories) {
+            tree.writeVarint(categories.size());
+            for (Category category : categories) {
+                writeString(category.getName());
+                // Child settings follow their parent, flattened into the category
+                tree.writeVarint(countSettings(category.getSettings()));
+                writeSettings(category.getSettings());
+            }
+        }
+        
+        void writeSettings(List<Setting> settings) {
+            for (Setting setting : settings) {
+                writeString(setting.getKey());
+                tree.write(setting.isEnabled() ? SETTING_ENABLED : 0);
+                writeValue(setting.getValue());
+                if (setting.getChildSettings() != null) {
+                    writeSettings(setting.getChildSettings());
+                }
+            }
+        }
+        
+        void writeValue(Object value) {
+            if (value == null) {
+                tree.write(VALUE_NULL);
+            } else if (value instanceof Boolean) {
+                tree.write((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                tree.write(VALUE_INT);
+                tree.writeZigZag(((Number) value).intValue());
+            } else if (value instanceof Long) {
+                tree.write(VALUE_LONG);
+                tree.writeZigZag((Long) value);
+            } else if (value instanceof Number) {
+                double number = ((Number) value).doubleValue();
+                long whole = (long) number;
+                // -0.0 compares equal to 0 but would come back as 0.0
+                if (whole == number && (whole != 0 || 1 / number > 0)) {
+                    tree.write(VALUE_WHOLE_DOUBLE);
+                    tree.writeZigZag(whole);
+                } else {
+                    tree.write(VALUE_DOUBLE);
+                    tree.writeLong(Double.doubleToRawLongBits(number));
+                }
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                tree.write(VALUE_LIST);
+                tree.writeVarint(list.size());
+                for (Object item : list) {
+                    writeValue(item);
+                }
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                tree.write(VALUE_MAP);
+                tree.writeVarint(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeString(String.valueOf(entry.getKey()));
+                    writeValue(entry.getValue());
+                }
+            } else {
+                // Strings, and anything else an editor stored, as their text
+                tree.write(VALUE_STRING);
+                writeString(value.toString());
+            }
+        }
+        
+        void writeString(String string) {
+            if (inlineStrings) {
+                byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+                tree.writeVarint(utf8.length);
+                tree.write(utf8, 0, utf8.length);
+            } else {
+                tree.writeVarint(ref(string));
+            }
+        }
+        
+        int ref(String string) {
+            Integer index = strings.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.put(string, index);
+                stringBytes += string.length();
+            }
+            return index;
+        }
+    }
+    
+    private static class Decoder {
+        private final ByteBuffer in;
+        // Null while decoding a change record, whose strings are inline
+        private String[] strings;
+        private byte[] scratch = new byte[256];
+        
+        Decoder(ByteBuffer in) {
+            this.in = in;
+        }
+        
+        int readInto(ConfigModel model) {
+            readStrings();
+            
+            int restored = 0;
+            int categoryCount = readVarint();
+            for (int i = 0; i < categoryCount; i++) {
+                Category category = model.getCategory(readString());
+                int settingCount = readVarint();
+                for (int j = 0; j < settingCount; j++) {
+                    String key = readString();
+                    boolean enabled = (in.get() & SETTING_ENABLED) != 0;
+                    if (restore(category, key, enabled, readValue())) {
+                        restored++;
+                    }
+                }
+            }
+            return restored;
+        }
+        
+        boolean applyChange(ConfigModel model) {
+            String categoryName = readString();
+            String key = readString();
+            boolean enabled = (in.get() & SETTING_ENABLED) != 0;
+            return restore(model.getCategory(categoryName), key, enabled, readValue());
+        }
+        
+        private void readStrings() {
+            String[] table = new String[readVarint()];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = readInlineString();
+            }
+            strings = table;
+        }
+        
+        private String readInlineString() {
+            int length = readVarint();
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            in.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        
+        private Object readValue() {
+            int tag = in.get() & 0xFF;
+            switch (tag) {
+                case VALUE_NULL:
+                    return null;
+                case VALUE_FALSE:
+                    return Boolean.FALSE;
+                case VALUE_TRUE:
+                    return Boolean.TRUE;
+                case VALUE_INT:
+                    return (int) readZigZag();
+                case VALUE_LONG:
+                    return readZigZag();
+                case VALUE_DOUBLE:
+                    return Double.longBitsToDouble(in.getLong());
+                case VALUE_WHOLE_DOUBLE:
+                    return (double) readZigZag();
+                case VALUE_STRING:
+                    return readString();
+                case VALUE_LIST: {
+                    int count = readVarint();
+                    List<Object> list = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                }
+                case VALUE_MAP: {
+                    int count = readVarint();
+                    Map<String, Object> map = new LinkedHashMap<>(count * 2);
+                    for (int i = 0; i < count; i++) {
+                        map.put(readString(), readValue());
+                    }
+                    return map;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown value tag " + tag);
+            }
+        }
+        
+        private String readString() {
+            return strings != null ? strings[readVarint()] : readInlineString();
+        }
+        
+        private int readVarint() {
+            long value = readVarLong();
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Varint out of range: " + value);
+            }
+            return (int) value;
+        }
+        
+        private long readZigZag() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+        
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Varint too long");
+        }
+    }
+    
+    /** Growable byte array; ByteArrayOutputStream without the locking. */
+    private static class ByteSink {
+        byte[] buffer;
+        private int size;
+        
+        ByteSink(int capacity) {
+            buffer = new byte[capacity];
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        void write(int b) {
+            ensure(1);
+            buffer[size++] = (byte) b;
+        }
+        
+        void write(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+        
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+        
+        void writeZigZag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+        
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+        
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+}
\ No newline at end of file
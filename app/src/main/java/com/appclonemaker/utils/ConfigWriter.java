@@ -0,0 +1,153 @@
+package com.appclonemaker.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Writes configuration snapshots on a single background thread. Saves that
+ * arrive while a write is queued or running are coalesced: only the newest
+ * snapshot is written, or the pending ones combined by a {@link Merger}, and
+ * every caller whose save it absorbed is told the outcome of that write on
+ * the main thread.
+ */
+public class ConfigWriter<T> {
+    
+    public interface Sink<T> {
+        /** Persists one snapshot; runs on the writer thread. */
+        boolean write(T snapshot);
+    }
+    
+    public interface Merger<T> {
+        /** Combines a pending save with a newer one, e.g. two sets of changes. */
+        T merge(T older, T newer);
+    }
+    
+    public interface SaveCallback {
+        void onSaveComplete(boolean success);
+    }
+    
+    // One writer thread for the whole process keeps writes to the same files ordered
+    private static volatile Thread writerThread;
+    private static final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "config-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        return thread;
+    });
+    
+    static {
+        // Debounced saves cancel and reschedule often; don't let cancelled ones pile up
+        executor.setRemoveOnCancelPolicy(true);
+    }
+    
+    private final Sink<T> sink;
+    private final Merger<T> merger;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Object lock = new Object();
+    
+    private T pendingSnapshot;
+    private List<SaveCallback> pendingCallbacks = new ArrayList<>();
+    private List<BlockingSave> pendingBlockingSaves = new ArrayList<>();
+    private boolean drainScheduled;
+    
+    public ConfigWriter(Sink<T> sink) {
+        this(sink, (older, newer) -> newer);
+    }
+    
+    public ConfigWriter(Sink<T> sink, Merger<T> merger) {
+        this.sink = sink;
+        this.merger = merger;
+    }
+    
+    /**
+     * The writer thread, shared with anything that times saves, such as
+     * {@link AutoSaveScheduler}, so the process keeps a single config worker.
+     */
+    static ScheduledExecutorService getExecutor() {
+        return executor;
+    }
+    
+    public void submit(T snapshot, SaveCallback callback) {
+        enqueue(snapshot, callback, null);
+    }
+    
+    /**
+     * Queues the snapshot like {@link #submit} and blocks until the write that
+     * included it has finished, so synchronous saves stay ordered with the
+     * queued ones. Not for the main thread or the writer thread.
+     */
+    public boolean submitAndWait(T snapshot) throws InterruptedException {
+        if (Thread.currentThread() == writerThread) {
+            throw new IllegalStateException("Blocking save on the writer thread would never complete");
+        }
+        BlockingSave save = new BlockingSave();
+        enqueue(snapshot, null, save);
+        save.done.await();
+        return save.success;
+    }
+    
+    private void enqueue(T snapshot, SaveCallback callback, BlockingSave blockingSave) {
+        synchronized (lock) {
+            pendingSnapshot = pendingSnapshot != null ? merger.merge(pendingSnapshot, snapshot) : snapshot;
+            if (callback != null) {
+                pendingCallbacks.add(callback);
+            }
+            if (blockingSave != null) {
+                pendingBlockingSaves.add(blockingSave);
+            }
+            if (drainScheduled) {
+                return;
+            }
+            drainScheduled = true;
+        }
+        executor.execute(this::drain);
+    }
+    
+    private void drain() {
+        T snapshot;
+        List<SaveCallback> callbacks;
+        List<BlockingSave> blockingSaves;
+        synchronized (lock) {
+            snapshot = pendingSnapshot;
+            callbacks = pendingCallbacks;
+            blockingSaves = pendingBlockingSaves;
+            pendingSnapshot = null;
+            pendingCallbacks = new ArrayList<>();
+            pendingBlockingSaves = new ArrayList<>();
+            drainScheduled = false;
+        }
+        
+        boolean success;
+        try {
+            success = sink.write(snapshot);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            success = false;
+        }
+        
+        for (BlockingSave blockingSave : blockingSaves) {
+            blockingSave.success = success;
+            blockingSave.done.countDown();
+        }
+        if (!callbacks.isEmpty()) {
+            final boolean result = success;
+            mainHandler.post(() -> {
+                for (SaveCallback callback : callbacks) {
+                    callback.onSaveComplete(result);
+                }
+            });
+        }
+    }
+    
+    private static class BlockingSave {
+        final CountDownLatch done = new CountDownLatch(1);
+        // Published to the waiting thread by the latch
+        boolean success;
+    }
+}
\ No newline at end of file
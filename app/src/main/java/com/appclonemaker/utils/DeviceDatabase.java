@@ -0,0 +1,942 @@
+package com.appclonemaker.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Read-only catalogue of device profiles, kept in a compact binary file that
+ * is memory-mapped instead of parsed, so opening it costs the same for ten
+ * devices as for fifty thousand and the heap holds none of it. The file is
+ * built from the bundled {@value #ASSET_NAME} asset.
+ *
+ * <p>Layout: {@code "ACMD"}, a version byte, the stamp of the source it was
+ * built from, and the offsets of the sections below; a directory of columns,
+ * the first holding display names and each other one build property; per
+ * column a dictionary of its distinct values; a table of fixed-width rows
+ * holding, per column, the dictionary id of the row's value in the fewest
+ * bytes that fit that dictionary, then a bit mask of supported SDK levels;
+ * and the indexes: rows sorted by name, and for manufacturer, brand, hardware
+ * and each SDK level, the ascending rows that match. All reads are absolute,
+ * so one mapping serves every thread.
+ *
+ * <p>Profiles handed out are flyweight views of a row. A string is decoded
+ * from its dictionary the first time it is read and cached per dictionary
+ * entry, so shared values such as manufacturers are decoded once.
+ * Manufacturer, brand and hardware match case-insensitively.
+ */
+public final class DeviceDatabase {
+    
+    public static final String ASSET_NAME = "device_profiles.json";
+    
+    private static final byte[] MAGIC = {'A', 'C', 'M', 'D'};
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    
+    // Property columns that get a case-insensitive index
+    private static final String[] INDEXED_KEYS = {
+        DeviceProfile.KEY_MANUFACTURER,
+        DeviceProfile.KEY_BRAND,
+        DeviceProfile.KEY_HARDWARE
+    };
+    private static final int MANUFACTURER = 0;
+    private static final int BRAND = 1;
+    private static final int HARDWARE = 2;
+    
+    // SDK levels are a bit mask per row; higher levels are not recorded
+    private static final int MAX_SDK = 63;
+    // Dictionary id of a property the row does not have
+    private static final int NULL_ID = 0;
+    private static final int[] NO_ROWS = new int[0];
+    
+    private static final Comparator<byte[]> UNSIGNED_BYTES = (a, b) -> {
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    };
+    
+    private final ByteBuffer buffer;
+    private final long sourceStamp;
+    private final int rowCount;
+    private final int rowWidth;
+    private final int rowTableOffset;
+    private final int nameIndexOffset;
+    private final int sdkIndexOffset;
+    private final Column[] columns;
+    private final Map<String, Column> columnsByKey;
+    // Parallel to INDEXED_KEYS; null where no profile has the property
+    private final StringIndex[] indexes;
+    
+    private DeviceDatabase(ByteBuffer buffer) {
+        this.buffer = buffer;
+        
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                throw new IllegalArgumentException("Not a device database");
+            }
+        }
+        int version = buffer.get(MAGIC.length) & 0xFF;
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported device database version " + version);
+        }
+        sourceStamp = buffer.getLong(8);
+        rowCount = buffer.getInt(16);
+        int columnCount = buffer.getInt(20);
+        rowWidth = buffer.getInt(24);
+        rowTableOffset = buffer.getInt(28);
+        nameIndexOffset = buffer.getInt(32);
+        sdkIndexOffset = buffer.getInt(36);
+        if (rowCount < 0 || columnCount < 1 || rowWidth < 8
+                || (long) rowTableOffset + (long) rowCount * rowWidth > buffer.limit()) {
+            throw new IllegalArgumentException("Corrupt device database header");
+        }
+        
+        columns = new Column[columnCount];
+        columnsByKey = new HashMap<>(columnCount * 2);
+        Map<String, Integer> indexOffsets = new HashMap<>();
+        int position = HEADER_SIZE;
+        int rowOffset = 0;
+        for (int i = 0; i < columnCount; i++) {
+            int keyLength = buffer.getInt(position);
+            String key = decode(position + 4, keyLength);
+            position += 4 + keyLength;
+            int width = buffer.get(position);
+            int dictionaryOffset = buffer.getInt(position + 1);
+            int indexOffset = buffer.getInt(position + 5);
+            position += 9;
+            
+            columns[i] = new Column(key, width, rowOffset, dictionaryOffset);
+            rowOffset += width;
+            if (i > 0) {
+                columnsByKey.put(key, columns[i]);
+            }
+            if (indexOffset != 0) {
+                indexOffsets.put(key, indexOffset);
+            }
+        }
+        if (rowOffset + 8 != rowWidth) {
+            throw new IllegalArgumentException("Corrupt device database row layout");
+        }
+        
+        indexes = new StringIndex[INDEXED_KEYS.length];
+        for (int i = 0; i < INDEXED_KEYS.length; i++) {
+            Integer offset = indexOffsets.get(INDEXED_KEYS[i]);
+            indexes[i] = offset != null ? new StringIndex(offset) : null;
+        }
+    }
+    
+    public static DeviceDatabase empty() {
+        return of(new ArrayList<DeviceProfile>());
+    }
+    
+    /** A database held on the heap instead of mapped, e.g. for tests and benchmarks. */
+    public static DeviceDatabase of(List<DeviceProfile> profiles) {
+        try {
+            return open(ByteBuffer.wrap(encode(profiles, 0)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read a freshly encoded device database", e);
+        }
+    }
+    
+    public static DeviceDatabase open(ByteBuffer buffer) throws IOException {
+        try {
+            return new DeviceDatabase(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Malformed device database", e);
+        }
+    }
+    
+    /** Maps a database file; the mapping stays valid if the file is replaced. */
+    public static DeviceDatabase open(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            return open(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    /** Parses and indexes the catalogue from JSON into a heap database. */
+    public static DeviceDatabase read(Reader json) throws IOException {
+        return of(readProfiles(json));
+    }
+    
+    /**
+     * Streams profiles from JSON: an array of
+     * {@code {"name": ..., "sdkVersions": [...], "properties": {...}}}
+     * objects, read one at a time, never as a tree.
+     */
+    public static List<DeviceProfile> readProfiles(Reader json) throws IOException {
+        List<DeviceProfile> profiles = new ArrayList<>();
+        JsonReader reader = new JsonReader(json);
+        try {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                profiles.add(readProfile(reader));
+            }
+            reader.endArray();
+        } catch (IllegalStateException | NumberFormatException e) {
+            // JsonReader reports unexpected tokens this way
+            throw new IOException("Malformed device database", e);
+        }
+        return profiles;
+    }
+    
+    private static DeviceProfile readProfile(JsonReader reader) throws IOException {
+        String name = null;
+        Map<String, String> properties = new LinkedHashMap<>();
+        int[] sdkVersions = new int[0];
+        
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "name":
+                    name = reader.nextString();
+                    break;
+                case "sdkVersions":
+                    sdkVersions = readSdkVersions(reader);
+                    break;
+                case "properties":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String key = reader.nextName();
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                            properties.put(key, "");
+                        } else {
+                            properties.put(key, reader.nextString());
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        
+        if (name == null) {
+            throw new IOException("Device profile without a name at " + reader.getPath());
+        }
+        return DeviceProfile.of(name, properties, sdkVersions);
+    }
+    
+    private static int[] readSdkVersions(JsonReader reader) throws IOException {
+        IntList versions = new IntList();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            versions.add(reader.nextInt());
+        }
+        reader.endArray();
+        
+        int[] sorted = versions.toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+    
+    /** The stamp passed to {@link #encode}, identifying the source this was built from. */
+    public long getSourceStamp() {
+        return sourceStamp;
+    }
+    
+    public int size() {
+        return rowCount;
+    }
+    
+    /** A view of one row; cheap to create, reads the mapping on demand. */
+    public DeviceProfile get(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+        return new Row(row);
+    }
+    
+    /** Every profile in row order, as a view rather than a copy. */
+    public List<DeviceProfile> asList() {
+        return new AbstractList<DeviceProfile>() {
+            @Override
+            public DeviceProfile get(int index) {
+                return DeviceDatabase.this.get(index);
+            }
+            
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+    
+    /** Binary search of the name index, comparing encoded bytes without decoding names. */
+    public DeviceProfile find(String displayName) {
+        byte[] key = displayName.getBytes(StandardCharsets.UTF_8);
+        Column names = columns[0];
+        int low = 0;
+        int high = rowCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int row = buffer.getInt(nameIndexOffset + 4 * middle);
+            int cmp = names.compare(names.id(row), key);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return new Row(row);
+            }
+        }
+        return null;
+    }
+    
+    /** Rows with the given manufacturer, ascending, as a new array. */
+    public int[] rowsWithManufacturer(String manufacturer) {
+        return lookup(MANUFACTURER, manufacturer);
+    }
+    
+    /** Rows with the given brand, ascending, as a new array. */
+    public int[] rowsWithBrand(String brand) {
+        return lookup(BRAND, brand);
+    }
+    
+    /** Rows with the given hardware, ascending, as a new array. */
+    public int[] rowsWithHardware(String hardware) {
+        return lookup(HARDWARE, hardware);
+    }
+    
+    /** Rows supporting the given SDK level, ascending, as a new array. */
+    public int[] rowsWithSdk(int sdk) {
+        if (sdk < 0 || sdk > MAX_SDK) {
+            return NO_ROWS;
+        }
+        int from = buffer.getInt(sdkIndexOffset + 4 * sdk);
+        int to = buffer.getInt(sdkIndexOffset + 4 * (sdk + 1));
+        return readRows(sdkIndexOffset + 4 * (MAX_SDK + 2), from, to);
+    }
+    
+    /**
+     * Rows matching {@code filter}, ascending: any of the listed values within
+     * one field, and every field that lists values. Costs one index lookup
+     * per listed value plus a merge of the resulting rows.
+     */
+    public int[] select(Filter filter) {
+        int[] rows = null;
+        rows = narrow(rows, unionOf(MANUFACTURER, filter.manufacturers));
+        rows = narrow(rows, unionOf(BRAND, filter.brands));
+        rows = narrow(rows, unionOf(HARDWARE, filter.hardware));
+        if (!filter.sdkVersions.isEmpty()) {
+            int[] union = NO_ROWS;
+            for (int sdk : filter.sdkVersions) {
+                union = union(union, rowsWithSdk(sdk));
+            }
+            rows = narrow(rows, union);
+        }
+        return rows != null ? rows : allRows();
+    }
+    
+    private int[] allRows() {
+        int[] rows = new int[rowCount];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+    
+    private int[] lookup(int index, String value) {
+        String key = normalize(value);
+        if (key == null || indexes[index] == null) {
+            return NO_ROWS;
+        }
+        return indexes[index].rows(key.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /** Null when the filter does not constrain this field. */
+    private int[] unionOf(int index, Set<String> keys) {
+        if (keys.isEmpty()) {
+            return null;
+        }
+        int[] union = NO_ROWS;
+        for (String key : keys) {
+            union = union(union, lookup(index, key));
+        }
+        return union;
+    }
+    
+    private static int[] narrow(int[] rows, int[] matches) {
+        if (matches == null) {
+            return rows;
+        }
+        return rows == null ? matches : intersect(rows, matches);
+    }
+    
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] out = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            out[n++] = a[i++];
+        }
+        while (j < b.length) {
+            out[n++] = b[j++];
+        }
+        return Arrays.copyOf(out, n);
+    }
+    
+    private static int[] intersect(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        // Look the rows of the shorter list up in the longer one
+        int[] out = new int[a.length];
+        int n = 0;
+        int from = 0;
+        for (int row : a) {
+            int found = Arrays.binarySearch(b, from, b.length, row);
+            if (found >= 0) {
+                out[n++] = row;
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+    
+    private int[] readRows(int rowsOffset, int from, int to) {
+        int[] rows = new int[to - from];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = buffer.getInt(rowsOffset + 4 * (from + i));
+        }
+        return rows;
+    }
+    
+    private long sdkMask(int row) {
+        return buffer.getLong(rowTableOffset + row * rowWidth + rowWidth - 8);
+    }
+    
+    private String decode(int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /** Compares the {@code length} bytes at {@code offset} with {@code key}, unsigned. */
+    private int compare(int offset, int length, byte[] key) {
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (buffer.get(offset + i) & 0xFF) - (key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+    
+    static String normalize(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.US);
+    }
+    
+    /**
+     * Writes {@code profiles} in the database format. {@code sourceStamp} is
+     * stored as is, e.g. to tell whether a cached file is still current.
+     */
+    public static byte[] encode(List<DeviceProfile> profiles, long sourceStamp) {
+        int rows = profiles.size();
+        
+        Set<String> keySet = new LinkedHashSet<>();
+        for (DeviceProfile profile : profiles) {
+            keySet.addAll(profile.getProperties().keySet());
+        }
+        List<String> keys = new ArrayList<>();
+        // Column 0 holds display names
+        keys.add("");
+        keys.addAll(keySet);
+        int columnCount = keys.size();
+        
+        List<Map<String, Integer>> dictionaries = new ArrayList<>(columnCount);
+        for (int column = 0; column < columnCount; column++) {
+            dictionaries.add(new LinkedHashMap<String, Integer>());
+        }
+        int[][] ids = new int[columnCount][rows];
+        long[] sdkMasks = new long[rows];
+        for (int row = 0; row < rows; row++) {
+            DeviceProfile profile = profiles.get(row);
+            for (int column = 0; column < columnCount; column++) {
+                String value = column == 0 ? profile.getDisplayName() : profile.getProperty(keys.get(column));
+                ids[column][row] = idOf(dictionaries.get(column), value);
+            }
+            for (int sdk : profile.getSdkVersions()) {
+                if (sdk >= 0 && sdk <= MAX_SDK) {
+                    sdkMasks[row] |= 1L << sdk;
+                }
+            }
+        }
+        
+        int[] widths = new int[columnCount];
+        int rowWidth = 8;
+        for (int column = 0; column < columnCount; column++) {
+            int values = dictionaries.get(column).size() + 1;
+            widths[column] = values <= 0x100 ? 1 : values <= 0x10000 ? 2 : 4;
+            rowWidth += widths[column];
+        }
+        
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.write(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.write(new byte[3]);
+            out.writeLong(sourceStamp);
+            out.writeInt(rows);
+            out.writeInt(columnCount);
+            out.writeInt(rowWidth);
+            // Section offsets, patched in below
+            out.write(new byte[HEADER_SIZE - out.size()]);
+            
+            // Column directory; dictionary and index offsets patched in below
+            int[] directoryPositions = new int[columnCount];
+            for (int column = 0; column < columnCount; column++) {
+                byte[] key = keys.get(column).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeByte(widths[column]);
+                directoryPositions[column] = out.size();
+                out.writeInt(0);
+                out.writeInt(0);
+            }
+            
+            int[] dictionaryOffsets = new int[columnCount];
+            for (int column = 0; column < columnCount; column++) {
+                dictionaryOffsets[column] = out.size();
+                List<byte[]> values = new ArrayList<>();
+                for (String value : dictionaries.get(column).keySet()) {
+                    values.add(value.getBytes(StandardCharsets.UTF_8));
+                }
+                writeStrings(out, values);
+            }
+            
+            int rowTableOffset = out.size();
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columnCount; column++) {
+                    int id = ids[column][row];
+                    if (widths[column] == 1) {
+                        out.writeByte(id);
+                    } else if (widths[column] == 2) {
+                        out.writeShort(id);
+                    } else {
+                        out.writeInt(id);
+                    }
+                }
+                out.writeLong(sdkMasks[row]);
+            }
+            
+            int nameIndexOffset = out.size();
+            for (int row : sortedByName(profiles)) {
+                out.writeInt(row);
+            }
+            
+            int[] indexOffsets = new int[columnCount];
+            for (String indexedKey : INDEXED_KEYS) {
+                int column = keys.indexOf(indexedKey);
+                if (column > 0) {
+                    indexOffsets[column] = out.size();
+                    writeIndex(out, profiles, indexedKey);
+                }
+            }
+            
+            int sdkIndexOffset = out.size();
+            writeSdkIndex(out, sdkMasks);
+            out.flush();
+            
+            ByteBuffer file = ByteBuffer.wrap(bytes.toByteArray());
+            file.putInt(28, rowTableOffset);
+            file.putInt(32, nameIndexOffset);
+            file.putInt(36, sdkIndexOffset);
+            for (int column = 0; column < columnCount; column++) {
+                file.putInt(directoryPositions[column], dictionaryOffsets[column]);
+                file.putInt(directoryPositions[column] + 4, indexOffsets[column]);
+            }
+            return file.array();
+        } catch (IOException e) {
+            // Only thrown by the underlying stream, which is in memory
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static int idOf(Map<String, Integer> dictionary, String value) {
+        if (value == null) {
+            return NULL_ID;
+        }
+        Integer id = dictionary.get(value);
+        if (id == null) {
+            id = dictionary.size() + 1;
+            dictionary.put(value, id);
+        }
+        return id;
+    }
+    
+    /** A string table: the count, where each string ends in the blob, then the UTF-8 blob. */
+    private static void writeStrings(DataOutputStream out, Collection<byte[]> strings) throws IOException {
+        out.writeInt(strings.size());
+        int end = 0;
+        for (byte[] string : strings) {
+            end += string.length;
+            out.writeInt(end);
+        }
+        for (byte[] string : strings) {
+            out.write(string);
+        }
+    }
+    
+    /** The normalized values in byte order as a string table, where each one's rows end, then the rows. */
+    private static void writeIndex(DataOutputStream out, List<DeviceProfile> profiles, String key) throws IOException {
+        TreeMap<byte[], IntList> postings = new TreeMap<>(UNSIGNED_BYTES);
+        for (int row = 0; row < profiles.size(); row++) {
+            String value = normalize(profiles.get(row).getProperty(key));
+            if (value == null) {
+                continue;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            IntList rows = postings.get(encoded);
+            if (rows == null) {
+                rows = new IntList();
+                postings.put(encoded, rows);
+            }
+            rows.add(row);
+        }
+        
+        writeStrings(out, postings.keySet());
+        int end = 0;
+        for (IntList rows : postings.values()) {
+            end += rows.size;
+            out.writeInt(end);
+        }
+        for (IntList rows : postings.values()) {
+            for (int i = 0; i < rows.size; i++) {
+                out.writeInt(rows.values[i]);
+            }
+        }
+    }
+    
+    /** Where each level's rows start, one past the last level, then the rows. */
+    private static void writeSdkIndex(DataOutputStream out, long[] sdkMasks) throws IOException {
+        IntList[] levels = new IntList[MAX_SDK + 1];
+        for (int sdk = 0; sdk <= MAX_SDK; sdk++) {
+            levels[sdk] = new IntList();
+        }
+        for (int row = 0; row < sdkMasks.length; row++) {
+            long mask = sdkMasks[row];
+            while (mask != 0) {
+                levels[Long.numberOfTrailingZeros(mask)].add(row);
+                mask &= mask - 1;
+            }
+        }
+        
+        int start = 0;
+        for (IntList level : levels) {
+            out.writeInt(start);
+            start += level.size;
+        }
+        out.writeInt(start);
+        for (IntList level : levels) {
+            for (int i = 0; i < level.size; i++) {
+                out.writeInt(level.values[i]);
+            }
+        }
+    }
+    
+    private static Integer[] sortedByName(List<DeviceProfile> profiles) {
+        final byte[][] names = new byte[profiles.size()][];
+        Integer[] rows = new Integer[profiles.size()];
+        for (int row = 0; row < rows.length; row++) {
+            names[row] = profiles.get(row).getDisplayName().getBytes(StandardCharsets.UTF_8);
+            rows[row] = row;
+        }
+        Arrays.sort(rows, (a, b) -> UNSIGNED_BYTES.compare(names[a], names[b]));
+        return rows;
+    }
+    
+    /** One column of the row table and its dictionary. */
+    private final class Column {
+        final String key;
+        final int width;
+        final int rowOffset;
+        final int count;
+        final int endsOffset;
+        final int blobOffset;
+        // Decoded values by id, filled on first read; racy, but Strings are immutable
+        private String[] decoded;
+        
+        Column(String key, int width, int rowOffset, int dictionaryOffset) {
+            if (width != 1 && width != 2 && width != 4) {
+                throw new IllegalArgumentException("Bad width " + width + " for column " + key);
+            }
+            this.key = key;
+            this.width = width;
+            this.rowOffset = rowOffset;
+            this.count = buffer.getInt(dictionaryOffset);
+            this.endsOffset = dictionaryOffset + 4;
+            this.blobOffset = endsOffset + 4 * count;
+        }
+        
+        int id(int row) {
+            int position = rowTableOffset + row * rowWidth + rowOffset;
+            switch (width) {
+                case 1:
+                    return buffer.get(position) & 0xFF;
+                case 2:
+                    return buffer.getShort(position) & 0xFFFF;
+                default:
+                    return buffer.getInt(position);
+            }
+        }
+        
+        String value(int id) {
+            if (id == NULL_ID) {
+                return null;
+            }
+            String[] cache = decoded;
+            if (cache == null) {
+                cache = new String[count + 1];
+                decoded = cache;
+            }
+            String value = cache[id];
+            if (value == null) {
+                int start = start(id);
+                value = decode(blobOffset + start, end(id) - start);
+                cache[id] = value;
+            }
+            return value;
+        }
+        
+        int compare(int id, byte[] key) {
+            int start = start(id);
+            return DeviceDatabase.this.compare(blobOffset + start, end(id) - start, key);
+        }
+        
+        private int start(int id) {
+            return id == 1 ? 0 : buffer.getInt(endsOffset + 4 * (id - 2));
+        }
+        
+        private int end(int id) {
+            return buffer.getInt(endsOffset + 4 * (id - 1));
+        }
+    }
+    
+    /** The sorted normalized values of one property and the rows having each. */
+    private final class StringIndex {
+        final int count;
+        final int endsOffset;
+        final int blobOffset;
+        final int rowEndsOffset;
+        final int rowsOffset;
+        
+        StringIndex(int offset) {
+            count = buffer.getInt(offset);
+            endsOffset = offset + 4;
+            blobOffset = endsOffset + 4 * count;
+            int blobLength = count == 0 ? 0 : buffer.getInt(endsOffset + 4 * (count - 1));
+            rowEndsOffset = blobOffset + blobLength;
+            rowsOffset = rowEndsOffset + 4 * count;
+        }
+        
+        int[] rows(byte[] key) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int start = middle == 0 ? 0 : buffer.getInt(endsOffset + 4 * (middle - 1));
+                int cmp = compare(blobOffset + start, buffer.getInt(endsOffset + 4 * middle) - start, key);
+                if (cmp < 0) {
+                    low = middle + 1;
+                } else if (cmp > 0) {
+                    high = middle - 1;
+                } else {
+                    int from = middle == 0 ? 0 : buffer.getInt(rowEndsOffset + 4 * (middle - 1));
+                    return readRows(rowsOffset, from, buffer.getInt(rowEndsOffset + 4 * middle));
+                }
+            }
+            return NO_ROWS;
+        }
+    }
+    
+    /** A flyweight over one row of the table. */
+    private final class Row extends DeviceProfile {
+        private final int row;
+        
+        Row(int row) {
+            this.row = row;
+        }
+        
+        @Override
+        public String getDisplayName() {
+            Column names = columns[0];
+            return names.value(names.id(row));
+        }
+        
+        @Override
+        public String getProperty(String key) {
+            Column column = columnsByKey.get(key);
+            return column != null ? column.value(column.id(row)) : null;
+        }
+        
+        @Override
+        public Map<String, String> getProperties() {
+            Map<String, String> properties = new LinkedHashMap<>();
+            for (int i = 1; i < columns.length; i++) {
+                String value = columns[i].value(columns[i].id(row));
+                if (value != null) {
+                    properties.put(columns[i].key, value);
+                }
+            }
+            return properties;
+        }
+        
+        @Override
+        public int[] getSdkVersions() {
+            long mask = sdkMask(row);
+            int[] versions = new int[Long.bitCount(mask)];
+            for (int i = 0; mask != 0; i++) {
+                versions[i] = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+            }
+            return versions;
+        }
+        
+        @Override
+        public boolean supportsSdk(int sdk) {
+            return sdk >= 0 && sdk <= MAX_SDK && (sdkMask(row) & (1L << sdk)) != 0;
+        }
+    }
+    
+    /**
+     * Which devices to pick from, e.g. from {@code devicesDatabaseFilters}
+     * and {@code devicesDatabaseSdkVersions}. A field left empty matches
+     * every device.
+     */
+    public static final class Filter {
+        final Set<String> manufacturers = new HashSet<>();
+        final Set<String> brands = new HashSet<>();
+        final Set<String> hardware = new HashSet<>();
+        final Set<Integer> sdkVersions = new HashSet<>();
+        
+        public Filter manufacturers(Collection<String> values) {
+            addNormalized(manufacturers, values);
+            return this;
+        }
+        
+        public Filter brands(Collection<String> values) {
+            addNormalized(brands, values);
+            return this;
+        }
+        
+        public Filter hardware(Collection<String> values) {
+            addNormalized(hardware, values);
+            return this;
+        }
+        
+        public Filter sdkVersions(Collection<Integer> values) {
+            sdkVersions.addAll(values);
+            return this;
+        }
+        
+        public boolean isEmpty() {
+            return manufacturers.isEmpty() && brands.isEmpty() && hardware.isEmpty() && sdkVersions.isEmpty();
+        }
+        
+        /** The same test as {@link DeviceDatabase#select}, for a profile outside the database. */
+        boolean matches(DeviceProfile profile) {
+            if (!matches(manufacturers, profile.getProperty(DeviceProfile.KEY_MANUFACTURER))
+                    || !matches(brands, profile.getProperty(DeviceProfile.KEY_BRAND))
+                    || !matches(hardware, profile.getProperty(DeviceProfile.KEY_HARDWARE))) {
+                return false;
+            }
+            if (sdkVersions.isEmpty()) {
+                return true;
+            }
+            for (int sdk : profile.getSdkVersions()) {
+                if (sdkVersions.contains(sdk)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private static boolean matches(Set<String> values, String value) {
+            return values.isEmpty() || values.contains(normalize(value));
+        }
+        
+        private static void addNormalized(Set<String> set, Collection<String> values) {
+            for (String value : values) {
+                String normalized = normalize(value);
+                if (normalized != null) {
+                    set.add(normalized);
+                }
+            }
+        }
+    }
+    
+    /** Growable int array, so index building does not box every row number. */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.appclonemaker.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A device whose build properties a clone can take on: the
+ * {@code buildProps*} values keyed as in the configuration, plus the SDK
+ * levels the device shipped with or was updated to. Profiles are immutable.
+ *
+ * <p>Catalogue profiles are views over a row of a {@link DeviceDatabase} and
+ * read their values from it on demand; {@link #of} creates a standalone one,
+ * e.g. for a profile the user entered.
+ */
+public abstract class DeviceProfile {
+    
+    public static final String KEY_DEVICE_NAME = "buildPropsDeviceName";
+    public static final String KEY_MANUFACTURER = "buildPropsManufacturer";
+    public static final String KEY_BRAND = "buildPropsBrand";
+    public static final String KEY_MODEL = "buildPropsModel";
+    public static final String KEY_PRODUCT = "buildPropsProduct";
+    public static final String KEY_DEVICE = "buildPropsDevice";
+    public static final String KEY_BOARD = "buildPropsBoard";
+    public static final String KEY_RADIO = "buildPropsRadio";
+    public static final String KEY_HARDWARE = "buildPropsHardware";
+    
+    DeviceProfile() {
+    }
+    
+    public static DeviceProfile of(String displayName, Map<String, String> properties, int[] sdkVersions) {
+        return new Standalone(displayName, properties, sdkVersions);
+    }
+    
+    public abstract String getDisplayName();
+    
+    /** The value of one build property, or null when the profile has none. */
+    public abstract String getProperty(String key);
+    
+    /** Every build property, as a new map the caller may modify. */
+    public abstract Map<String, String> getProperties();
+    
+    /** Supported SDK levels in ascending order, as a new array; empty when unknown. */
+    public abstract int[] getSdkVersions();
+    
+    public boolean supportsSdk(int sdk) {
+        for (int version : getSdkVersions()) {
+            if (version == sdk) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static final class Standalone extends DeviceProfile {
+        private final String displayName;
+        private final Map<String, String> properties;
+        private final int[] sdkVersions;
+        
+        Standalone(String displayName, Map<String, String> properties, int[] sdkVersions) {
+            this.displayName = displayName;
+            this.properties = new LinkedHashMap<>(properties);
+            this.sdkVersions = sdkVersions.clone();
+        }
+        
+        @Override
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        @Override
+        public String getProperty(String key) {
+            return properties.get(key);
+        }
+        
+        @Override
+        public Map<String, String> getProperties() {
+            return new LinkedHashMap<>(properties);
+        }
+        
+        @Override
+        public int[] getSdkVersions() {
+            return sdkVersions.clone();
+        }
+    }
+}
\ No newline at end of file
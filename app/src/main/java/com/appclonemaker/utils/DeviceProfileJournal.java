@@ -0,0 +1,222 @@
+package com.appclonemaker.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the device profiles the user added and removed, so
+ * an edit writes one record instead of the whole set. Replaying the journal
+ * yields the profiles in the order they were added.
+ *
+ * <p>The file starts with {@code "ACPJ"} and a format version. Each record is
+ * its length, its CRC32 and a payload: an add with the profile's name, build
+ * properties and SDK levels, or a remove with just the name. A record torn by
+ * a crash mid-append ends the replay and is cut off before the next append.
+ * Once records outnumber live profiles by {@value #COMPACT_RATIO} to one, the
+ * journal is rewritten as one add per live profile.
+ *
+ * <p>Not thread-safe: replay first, then append from one thread at a time.
+ */
+public class DeviceProfileJournal {
+    
+    private static final int MAGIC = 0x4143504A; // "ACPJ"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+    
+    // Journals shorter than this are never worth compacting
+    private static final int COMPACT_MIN_RECORDS = 64;
+    private static final int COMPACT_RATIO = 4;
+    
+    private final File file;
+    // Records up to validLength bytes; the rest is a torn append to cut off
+    private int recordCount;
+    private long validLength;
+    // Set until a replay succeeds, so a journal that could not be read is rewritten, not appended to
+    private boolean needsRewrite = true;
+    
+    public DeviceProfileJournal(File file) {
+        this.file = file;
+    }
+    
+    /** The live profiles, in the order they were first added. */
+    public List<DeviceProfile> replay() throws IOException {
+        Map<String, DeviceProfile> profiles = new LinkedHashMap<>();
+        recordCount = 0;
+        validLength = 0;
+        needsRewrite = true;
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            return new ArrayList<>();
+        }
+        
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a device profile journal: " + file);
+            }
+            
+            validLength = HEADER_SIZE;
+            CRC32 crc = new CRC32();
+            byte[] record = new byte[256];
+            while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                int length = buffer.getInt();
+                int expectedCrc = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    break;
+                }
+                if (length > record.length) {
+                    record = new byte[length];
+                }
+                buffer.get(record, 0, length);
+                
+                crc.reset();
+                crc.update(record, 0, length);
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+                apply(new DataInputStream(new ByteArrayInputStream(record, 0, length)), profiles);
+                recordCount++;
+                validLength = buffer.position();
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Malformed device profile journal " + file, e);
+        }
+        needsRewrite = false;
+        return new ArrayList<>(profiles.values());
+    }
+    
+    /** Records that {@code profile} was added or replaced; {@code live} is the set after the edit. */
+    public void add(DeviceProfile profile, List<DeviceProfile> live) throws IOException {
+        append(encodeAdd(profile), live);
+    }
+    
+    /** Records that the profile named {@code displayName} was removed; {@code live} is the set after the edit. */
+    public void remove(String displayName, List<DeviceProfile> live) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(OP_REMOVE);
+        out.writeUTF(displayName);
+        append(bytes.toByteArray(), live);
+    }
+    
+    /** Rewrites the journal as one add per profile in {@code live}, atomically. */
+    public void compact(List<DeviceProfile> live) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        CRC32 crc = new CRC32();
+        for (DeviceProfile profile : live) {
+            writeRecord(out, crc, encodeAdd(profile));
+        }
+        out.flush();
+        
+        SafeFileWriter.write(file, bytes.toByteArray());
+        recordCount = live.size();
+        validLength = bytes.size();
+        needsRewrite = false;
+    }
+    
+    public int getRecordCount() {
+        return recordCount;
+    }
+    
+    private void append(byte[] record, List<DeviceProfile> live) throws IOException {
+        if (needsRewrite || shouldCompact(recordCount + 1, live.size())) {
+            // The rewrite holds the state after this edit, so the record itself is not needed
+            compact(live);
+            return;
+        }
+        
+        FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            FileChannel channel = out.getChannel();
+            if (channel.size() > validLength) {
+                channel.truncate(validLength);
+            }
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            writeRecord(data, new CRC32(), record);
+            data.flush();
+            channel.force(true);
+            recordCount++;
+            validLength += data.size();
+        } finally {
+            out.close();
+        }
+    }
+    
+    private static boolean shouldCompact(int records, int liveProfiles) {
+        return records > COMPACT_MIN_RECORDS && records > liveProfiles * COMPACT_RATIO;
+    }
+    
+    private static void writeRecord(DataOutputStream out, CRC32 crc, byte[] record) throws IOException {
+        crc.reset();
+        crc.update(record, 0, record.length);
+        out.writeInt(record.length);
+        out.writeInt((int) crc.getValue());
+        out.write(record);
+    }
+    
+    private static byte[] encodeAdd(DeviceProfile profile) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(OP_ADD);
+        out.writeUTF(profile.getDisplayName());
+        Map<String, String> properties = profile.getProperties();
+        out.writeInt(properties.size());
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            out.writeUTF(property.getKey());
+            out.writeUTF(property.getValue() != null ? property.getValue() : "");
+        }
+        int[] sdkVersions = profile.getSdkVersions();
+        out.writeInt(sdkVersions.length);
+        for (int sdk : sdkVersions) {
+            out.writeInt(sdk);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static void apply(DataInputStream in, Map<String, DeviceProfile> profiles) throws IOException {
+        byte op = in.readByte();
+        String displayName = in.readUTF();
+        switch (op) {
+            case OP_ADD:
+                int propertyCount = in.readInt();
+                Map<String, String> properties = new LinkedHashMap<>();
+                for (int i = 0; i < propertyCount; i++) {
+                    properties.put(in.readUTF(), in.readUTF());
+                }
+                int[] sdkVersions = new int[in.readInt()];
+                for (int i = 0; i < sdkVersions.length; i++) {
+                    sdkVersions[i] = in.readInt();
+                }
+                // Replacing keeps the profile where it was first added
+                profiles.put(displayName, DeviceProfile.of(displayName, properties, sdkVersions));
+                break;
+            case OP_REMOVE:
+                profiles.remove(displayName);
+                break;
+            default:
+                throw new IOException("Unknown device profile journal record " + op);
+        }
+    }
+}
\ No newline at end of file
@@ -1,249 +1,246 @@
 package com.appclonemaker.utils;
 
 import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.appcompat.app.AlertDialog;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Device profiles a clone can take its build properties from: the catalogue
+ * bundled as the {@value DeviceDatabase#ASSET_NAME} asset, followed by
+ * profiles the user added. Call {@link #initialize(Context)} from the
+ * Application; it starts loading on the config writer thread, which maps or
+ * rebuilds the catalogue and replays the custom profiles from their
+ * {@link DeviceProfileJournal}, so no disk I/O ever runs on the caller. Until
+ * then there are no profiles: wait with {@link #whenLoaded} on the main thread
+ * or {@link #awaitLoaded()} in the background.
+ *
+ * <p>Safe to use from any thread, and lock-free. All profiles are held in an
+ * immutable snapshot that each edit replaces by compare-and-set, so readers
+ * never lock or copy and always see a consistent set. The journal is written
+ * on the config writer thread: after each edit it records the profile's
+ * state in the latest snapshot, so it ends up matching the snapshot however
+ * concurrent edits interleave. Edits made before loading finishes are
+ * applied on the writer thread once it has.
+ */
 public class DeviceProfileManager {
     
-    private static DeviceProfileManager instance;
-    private List<DeviceProfile> deviceProfiles;
+    // Assumed for devices whose supported SDK levels are unknown
+    private static final List<String> DEFAULT_SDK_VERSIONS = Arrays.asList("28", "29", "30", "31", "32", "33", "34");
+    // Catalogue built from the asset, in the DeviceDatabase format
+    private static final String DATABASE_FILE = "device_profiles.acmd";
+    private static final String CUSTOM_PROFILES_FILE = "custom_device_profiles.journal";
+    
+    private static volatile Context appContext;
+    private static volatile DeviceProfileManager instance;
+    private final AtomicReference<Snapshot> snapshot;
+    // Null without a context to put it in; then custom profiles last only as long as the process
+    private final DeviceProfileJournal journal;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
     
     public interface DeviceProfileListener {
         void onProfileSelected(String profileName);
         void onProfilePropertiesLoaded(Map<String, String> properties);
     }
     
-    public static class DeviceProfile {
-        private String displayName;
-        private Map<String, String> properties;
-        
-        public DeviceProfile(String displayName) {
-            this.displayName = displayName;
-            this.properties = new HashMap<>();
-        }
-        
-        public String getDisplayName() {
-            return displayName;
-        }
-        
-        public Map<String, String> getProperties() {
-            return properties;
-        }
-        
-        public void setProperty(String key, String value) {
-            properties.put(key, value);
-        }
-        
-        public String getProperty(String key) {
-            return properties.get(key);
-        }
+    private DeviceProfileManager(DeviceProfileJournal journal) {
+        this.snapshot = new AtomicReference<>(new Snapshot(DeviceDatabase.empty(), Collections.<DeviceProfile>emptyList()));
+        this.journal = journal;
     }
     
-    private DeviceProfileManager() {
-        deviceProfiles = new ArrayList<>();
-        initializeDeviceProfiles();
+    /**
+     * Gives the manager access to the bundled catalogue and starts loading it
+     * in the background; call before {@link #getInstance()}.
+     */
+    public static void initialize(Context context) {
+        appContext = context.getApplicationContext();
+        getInstance();
     }
     
+    /** The manager, at once; the catalogue may still be loading. */
     public static DeviceProfileManager getInstance() {
         if (instance == null) {
-            instance = new DeviceProfileManager();
+            synchronized (DeviceProfileManager.class) {
+                if (instance == null) {
+                    DeviceProfileManager manager = new DeviceProfileManager(openJournal());
+                    ConfigWriter.getExecutor().execute(manager::load);
+                    instance = manager;
+                }
+            }
         }
         return instance;
     }
     
-    private void initializeDeviceProfiles() {
-        // Sample device profiles based on the HTML data
-        addDeviceProfile("Google Pixel 8 Pro", createPixel8ProProps());
-        addDeviceProfile("Google Pixel 7a", createPixel7aProps());
-        addDeviceProfile("Samsung Galaxy S24 Ultra", createS24UltraProps());
-        addDeviceProfile("Samsung Galaxy A54 5G", createA54Props());
-        addDeviceProfile("OnePlus 12", createOnePlus12Props());
-        addDeviceProfile("OnePlus Nord 3 5G", createNord3Props());
-        addDeviceProfile("Xiaomi 14 Ultra", createXiaomi14Props());
-        addDeviceProfile("Redmi Note 13 Pro 5G", createRedmiNote13Props());
-        addDeviceProfile("Asus ROG Phone 7 series", createROGPhone7Props());
-        addDeviceProfile("Asus Zenfone 10", createZenfone10Props());
-    }
-    
-    private void addDeviceProfile(String displayName, Map<String, String> properties) {
-        DeviceProfile profile = new DeviceProfile(displayName);
-        profile.getProperties().putAll(properties);
-        deviceProfiles.add(profile);
-    }
-    
-    private Map<String, String> createPixel8ProProps() {
-        Map<String, String> props = new HashMap<>();
-        props.put("buildPropsDeviceName", "husky");
-        props.put("buildPropsManufacturer", "Google");
-        props.put("buildPropsBrand", "google");
-        props.put("buildPropsModel", "Pixel 8 Pro");
-        props.put("buildPropsProduct", "husky");
-        props.put("buildPropsDevice", "husky");
-        props.put("buildPropsBoard", "husky");
-        props.put("buildPropsRadio", "");
-        props.put("buildPropsHardware", "husky");
-        return props;
-    }
-    
-    private Map<String, String> createPixel7aProps() {
-        Map<String, String> props = new HashMap<>();
-        props.put("buildPropsDeviceName", "lynx");
-        props.put("buildPropsManufacturer", "Google");
-        props.put("buildPropsBrand", "google");
-        props.put("buildPropsModel", "Pixel 7a");
-        props.put("buildPropsProduct", "lynx");
-        props.put("buildPropsDevice", "lynx");
-        props.put("buildPropsBoard", "lynx");
-        props.put("buildPropsRadio", "");
-        props.put("buildPropsHardware", "lynx");
-        return props;
-    }
-    
-    private Map<String, String> createS24UltraProps() {
-        Map<String, String> props = new HashMap<>();
-        props.put("buildPropsDeviceName", "e3q");
-        props.put("buildPropsManufacturer", "Samsung");
-        props.put("buildPropsBrand", "samsung");
-        props.put("buildPropsModel", "SM-S928B");
-        props.put("buildPropsProduct", "e3q");
-        props.put("buildPropsDevice", "e3q");
-        props.put("buildPropsBoard", "e3q");
-        props.put("buildPropsRadio", "");
-        props.put("buildPropsHardware", "e3q");
-        return props;
+    private void load() {
+        try {
+            DeviceDatabase database;
+            try {
+                database = loadDatabase();
+            } catch (RuntimeException e) {
+                // A malformed asset; custom profiles still work without the catalogue
+                e.printStackTrace();
+                database = DeviceDatabase.empty();
+            }
+            List<DeviceProfile> custom = Collections.emptyList();
+            if (journal != null) {
+                try {
+                    custom = journal.replay();
+                } catch (IOException | RuntimeException e) {
+                    // Start over; the next edit rewrites the journal
+                    e.printStackTrace();
+                }
+            }
+            // No edit replaces the snapshot before this; they wait for the load
+            snapshot.set(new Snapshot(database, custom));
+        } finally {
+            // Even a failed load has to release the edits and callbacks waiting for it
+            loaded.countDown();
+        }
     }
     
-    private Map<String, String> createA54Props() {
-        Map<String, String> props = new HashMap<>();
-        props.put("buildPropsDeviceName", "a54x");
-        props.put("buildPropsManufacturer", "Samsung");
-        props.put("buildPropsBrand", "samsung");
-        props.put("buildPropsModel", "SM-A546B");
-        props.put("buildPropsProduct", "a54x");
-        props.put("buildPropsDevice", "a54x");
-        props.put("buildPropsBoard", "a54x");
-        props.put("buildPropsRadio", "");
-        props.put("buildPropsHardware", "a54x");
-        return props;
+    public boolean isLoaded() {
+        return loaded.getCount() == 0;
     }
     
-    private Map<String, String> createOnePlus12Props() {
-        Map<String, String> props = new HashMap<>();
-        props.put("buildPropsDeviceName", "OP5929L1");
-        props.put("buildPropsManufacturer", "OnePlus");
-        props.put("buildPropsBrand", "OnePlus");
-        props.put("buildPropsModel", "CPH2449");
-        props.put("buildPropsProduct", "OP5929L1");
-        props.put("buildPropsDevice", "OP5929L1");
-        props.put("buildPropsBoard", "OP5929L1");
-        props.put("buildPropsRadio", "");
-        props.put("buildPropsHardware", "OP5929L1");
-        return props;
+    /** Runs {@code callback} on the main thread once all profiles have loaded. */
+    public void whenLoaded(Runnable callback) {
+        if (isLoaded()) {
+            mainHandler.post(callback);
+            return;
+        }
+        // The load runs first on the writer thread, so this follows it
+        ConfigWriter.getExecutor().execute(() -> mainHandler.post(callback));
     }
     
-    private Map<String, String> createNord3Props() {
-        Map<String, String> props = new HashMap<>();
-        props.put("buildPropsDeviceName", "OP556FL1");
-        props.put("buildPropsManufacturer", "OnePlus");
-        props.put("buildPropsBrand", "OnePlus");
-        props.put("buildPropsModel", "CPH2383");
-        props.put("buildPropsProduct", "OP556FL1");
-        props.put("buildPropsDevice", "OP556FL1");
-        props.put("buildPropsBoard", "OP556FL1");
-        props.put("buildPropsRadio", "");
-        props.put("buildPropsHardware", "OP556FL1");
-        return props;
+    /**
+     * Blocks until all profiles have loaded and returns this manager. Not for
+     * the main thread, nor the config writer thread, which does the loading.
+     */
+    public DeviceProfileManager awaitLoaded() throws InterruptedException {
+        loaded.await();
+        return this;
     }
     
-    private Map<String, String> createXiaomi14Props() {
-        Map<String, String> props = new HashMap<>();
-        props.put("buildPropsDeviceName", "aurora");
-        props.put("buildPropsManufacturer", "Xiaomi");
-        props.put("buildPropsBrand", "Xiaomi");
-        props.put("buildPropsModel", "23127PN0CC");
-        props.put("buildPropsProduct", "aurora");
-        props.put("buildPropsDevice", "aurora");
-        props.put("buildPropsBoard", "aurora");
-        props.put("buildPropsRadio", "");
-        props.put("buildPropsHardware", "aurora");
-        return props;
+    /**
+     * Maps the catalogue built from the asset on an earlier run, rebuilding it
+     * when the app has been updated since, so the JSON is parsed once per
+     * install rather than on every launch.
+     */
+    private static DeviceDatabase loadDatabase() {
+        if (appContext == null) {
+            return DeviceDatabase.empty();
+        }
+        File cache = new File(appContext.getNoBackupFilesDir(), DATABASE_FILE);
+        long stamp = getPackageStamp();
+        if (cache.exists()) {
+            try {
+                DeviceDatabase database = DeviceDatabase.open(cache);
+                if (database.getSourceStamp() == stamp) {
+                    return database;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Rebuilt below
+                e.printStackTrace();
+            }
+        }
+        
+        byte[] encoded;
+        try (Reader reader = new BufferedReader(new InputStreamReader(
+                appContext.getAssets().open(DeviceDatabase.ASSET_NAME), StandardCharsets.UTF_8))) {
+            encoded = DeviceDatabase.encode(DeviceDatabase.readProfiles(reader), stamp);
+        } catch (IOException e) {
+            // Custom profiles still work without the catalogue
+            e.printStackTrace();
+            return DeviceDatabase.empty();
+        }
+        try {
+            SafeFileWriter.write(cache, encoded);
+            return DeviceDatabase.open(cache);
+        } catch (IOException e) {
+            // Serve this run from the heap and try writing again next launch
+            e.printStackTrace();
+            try {
+                return DeviceDatabase.open(ByteBuffer.wrap(encoded));
+            } catch (IOException malformed) {
+                malformed.printStackTrace();
+                return DeviceDatabase.empty();
+            }
+        }
     }
     
-    private Map<String, String> createRedmiNote13Props() {
-        Map<String, String> props = new HashMap<>();
-        props.put("buildPropsDeviceName", "garnet");
-        props.put("buildPropsManufacturer", "Redmi");
-        props.put("buildPropsBrand", "Redmi");
-        props.put("buildPropsModel", "2312DRA50G");
-        props.put("buildPropsProduct", "garnet");
-        props.put("buildPropsDevice", "garnet");
-        props.put("buildPropsBoard", "garnet");
-        props.put("buildPropsRadio", "");
-        props.put("buildPropsHardware", "garnet");
-        return props;
+    private static DeviceProfileJournal openJournal() {
+        Context context = appContext;
+        return context != null ? new DeviceProfileJournal(new File(context.getFilesDir(), CUSTOM_PROFILES_FILE)) : null;
     }
     
-    private Map<String, String> createROGPhone7Props() {
-        Map<String, String> props = new HashMap<>();
-        props.put("buildPropsDeviceName", "ASUS_AI2205");
-        props.put("buildPropsManufacturer", "Asus");
-        props.put("buildPropsBrand", "asus");
-        props.put("buildPropsModel", "ASUS_AI2205");
-        props.put("buildPropsProduct", "ASUS_AI2205");
-        props.put("buildPropsDevice", "ASUS_AI2205");
-        props.put("buildPropsBoard", "ASUS_AI2205");
-        props.put("buildPropsRadio", "");
-        props.put("buildPropsHardware", "ASUS_AI2205");
-        return props;
+    /** Changes whenever the APK, and so the bundled asset, is replaced. */
+    private static long getPackageStamp() {
+        try {
+            return appContext.getPackageManager()
+                    .getPackageInfo(appContext.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            // Our own package; cannot happen, but never trust a stale cache
+            return -1;
+        }
     }
     
-    private Map<String, String> createZenfone10Props() {
-        Map<String, String> props = new HashMap<>();
-        props.put("buildPropsDeviceName", "ASUS_AI2302");
-        props.put("buildPropsManufacturer", "Asus");
-        props.put("buildPropsBrand", "asus");
-        props.put("buildPropsModel", "ASUS_AI2302");
-        props.put("buildPropsProduct", "ASUS_AI2302");
-        props.put("buildPropsDevice", "ASUS_AI2302");
-        props.put("buildPropsBoard", "ASUS_AI2302");
-        props.put("buildPropsRadio", "");
-        props.put("buildPropsHardware", "ASUS_AI2302");
-        return props;
+    /** The bundled catalogue with its manufacturer, brand, hardware and SDK indexes. */
+    public DeviceDatabase getDatabase() {
+        return snapshot.get().database;
     }
     
+    /**
+     * Every profile, catalogue first, as an unmodifiable view of the current
+     * snapshot: later edits do not show up in it.
+     */
     public List<DeviceProfile> getDeviceProfiles() {
-        return new ArrayList<>(deviceProfiles);
+        return snapshot.get().all;
     }
     
     public DeviceProfile getDeviceProfile(String displayName) {
-        for (DeviceProfile profile : deviceProfiles) {
-            if (profile.getDisplayName().equals(displayName)) {
-                return profile;
-            }
-        }
-        return null;
+        return snapshot.get().find(displayName);
     }
     
+    /** Shows the profiles once the catalogue has loaded, which it usually has. */
     public void showDeviceProfileDialog(Context context, DeviceProfileListener listener) {
-        if (deviceProfiles.isEmpty()) {
+        whenLoaded(() -> showLoadedProfiles(context, listener));
+    }
+    
+    private void showLoadedProfiles(Context context, DeviceProfileListener listener) {
+        List<DeviceProfile> profiles = getDeviceProfiles();
+        if (profiles.isEmpty()) {
             return;
         }
         
-        String[] profileNames = new String[deviceProfiles.size()];
-        for (int i = 0; i < deviceProfiles.size(); i++) {
-            profileNames[i] = deviceProfiles.get(i).getDisplayName();
+        String[] profileNames = new String[profiles.size()];
+        for (int i = 0; i < profiles.size(); i++) {
+            profileNames[i] = profiles.get(i).getDisplayName();
         }
         
         AlertDialog.Builder builder = new AlertDialog.Builder(context);
         builder.setTitle("Select Device Profile");
         builder.setItems(profileNames, (dialog, which) -> {
-            DeviceProfile selectedProfile = deviceProfiles.get(which);
+            DeviceProfile selectedProfile = profiles.get(which);
             if (listener != null) {
                 listener.onProfileSelected(selectedProfile.getDisplayName());
                 listener.onProfilePropertiesLoaded(selectedProfile.getProperties());
@@ -260,7 +257,7 @@ public class DeviceProfileManager {
         details.append("Device Profile: ").append(profile.getDisplayName()).append("\n\n");
         
         for (Map.Entry<String, String> entry : profile.getProperties().entrySet()) {
-            details.append(formatPropertyName(entry.getKey()))
+            details.append(LabelFormatter.format(entry.getKey().replace("buildProps", "")))
                    .append(": ")
                    .append(entry.getValue())
                    .append("\n");
@@ -273,59 +270,167 @@ public class DeviceProfileManager {
         builder.show();
     }
     
-    private String formatPropertyName(String key) {
-        return key.replace("buildProps", "")
-                 .replaceAll("([A-Z])", " $1")
-                 .replaceAll("^.", str -> str.toUpperCase())
-                 .trim();
-    }
-    
+    /** Adds a profile, or replaces the custom profile with the same name in place. */
     public void addCustomDeviceProfile(String displayName, Map<String, String> properties) {
-        DeviceProfile profile = new DeviceProfile(displayName);
-        profile.getProperties().putAll(properties);
-        deviceProfiles.add(profile);
+        DeviceProfile profile = DeviceProfile.of(displayName, properties, new int[0]);
+        afterLoad(() -> {
+            Snapshot current;
+            do {
+                current = snapshot.get();
+            } while (!snapshot.compareAndSet(current, current.with(profile)));
+            persist(displayName);
+        });
     }
     
+    /** Removes a profile the user added; the bundled catalogue is read-only. */
     public void removeDeviceProfile(String displayName) {
-        deviceProfiles.removeIf(profile -> profile.getDisplayName().equals(displayName));
+        afterLoad(() -> {
+            Snapshot current;
+            Snapshot next;
+            do {
+                current = snapshot.get();
+                next = current.without(displayName);
+                if (next == current) {
+                    return;
+                }
+            } while (!snapshot.compareAndSet(current, next));
+            persist(displayName);
+        });
     }
     
-    public Map<String, String> getRandomDeviceProperties() {
-        if (deviceProfiles.isEmpty()) {
-            return new HashMap<>();
+    /**
+     * Runs {@code edit} at once when loading has finished, and otherwise
+     * queues it once on the writer thread, where it runs right after the load.
+     */
+    private void afterLoad(Runnable edit) {
+        if (isLoaded()) {
+            edit.run();
+        } else {
+            ConfigWriter.getExecutor().execute(edit);
         }
-        
-        int randomIndex = (int) (Math.random() * deviceProfiles.size());
-        DeviceProfile randomProfile = deviceProfiles.get(randomIndex);
-        
-        Map<String, String> properties = new HashMap<>(randomProfile.getProperties());
-        
-        // Add some randomization if needed
-        String originalModel = properties.get("buildPropsModel");
-        if (originalModel != null) {
-            String randomizedModel = originalModel + "_" + System.currentTimeMillis() % 1000;
-            properties.put("buildPropsModel", randomizedModel);
+    }
+    
+    /**
+     * Queues a journal record of the profile named {@code displayName} as it
+     * is in the snapshot when the record is written, on the writer thread,
+     * which is also the only thread appending.
+     */
+    private void persist(String displayName) {
+        if (journal == null) {
+            return;
         }
-        
-        return properties;
+        ConfigWriter.getExecutor().execute(() -> {
+            Snapshot latest = snapshot.get();
+            DeviceProfile profile = latest.customByName.get(displayName);
+            try {
+                if (profile != null) {
+                    journal.add(profile, latest.custom);
+                } else {
+                    journal.remove(displayName, latest.custom);
+                }
+            } catch (IOException e) {
+                // The profile stays in memory; it is lost only if the process dies first
+                e.printStackTrace();
+            }
+        });
+    }
+    
+    /**
+     * The build properties of a random device matching {@code filter}, as
+     * listed in the catalogue, or an empty map when no device matches.
+     */
+    public Map<String, String> getRandomDeviceProperties(DeviceDatabase.Filter filter) {
+        DeviceProfile profile = newDeviceSelector(filter, DeviceSelector.UNIFORM)
+                .next(IdentityGenerator.fast().getRandomSource());
+        return profile != null ? profile.getProperties() : new HashMap<String, String>();
+    }
+    
+    /**
+     * Picks among catalogue devices matching {@code filter}, found through the
+     * indexes, and matching custom profiles, weighted by {@code weigher}.
+     */
+    public DeviceSelector newDeviceSelector(DeviceDatabase.Filter filter, DeviceSelector.Weigher weigher) {
+        Snapshot current = snapshot.get();
+        return DeviceSelector.of(current.database, filter, current.custom, weigher);
     }
     
     public List<String> getSupportedSdkVersions(String deviceName) {
-        // Return supported SDK versions for specific devices
-        Map<String, List<String>> sdkVersions = new HashMap<>();
+        DeviceProfile profile = getDeviceProfile(deviceName);
+        if (profile == null || profile.getSdkVersions().length == 0) {
+            return DEFAULT_SDK_VERSIONS;
+        }
         
-        // Sample SDK version mappings
-        sdkVersions.put("Pixel 8 Pro", java.util.Arrays.asList("34", "35"));
-        sdkVersions.put("Pixel 7a", java.util.Arrays.asList("33", "34"));
-        sdkVersions.put("Galaxy S24 Ultra", java.util.Arrays.asList("34"));
-        sdkVersions.put("Galaxy A54 5G", java.util.Arrays.asList("33", "34"));
-        sdkVersions.put("OnePlus 12", java.util.Arrays.asList("34"));
-        sdkVersions.put("OnePlus Nord 3 5G", java.util.Arrays.asList("33", "34"));
-        sdkVersions.put("Xiaomi 14 Ultra", java.util.Arrays.asList("34"));
-        sdkVersions.put("Redmi Note 13 Pro 5G", java.util.Arrays.asList("33", "34"));
-        sdkVersions.put("Asus ROG Phone 7 series", java.util.Arrays.asList("34"));
-        sdkVersions.put("Asus Zenfone 10", java.util.Arrays.asList("34"));
+        List<String> versions = new ArrayList<>(profile.getSdkVersions().length);
+        for (int sdk : profile.getSdkVersions()) {
+            versions.add(String.valueOf(sdk));
+        }
+        return versions;
+    }
+    
+    /** One immutable state of all profiles; every edit builds a new one. */
+    private static final class Snapshot {
+        final DeviceDatabase database;
+        // Listed after the catalogue, in the order they were added
+        final List<DeviceProfile> custom;
+        final Map<String, DeviceProfile> customByName;
+        final List<DeviceProfile> all;
         
-        return sdkVersions.getOrDefault(deviceName, java.util.Arrays.asList("28", "29", "30", "31", "32", "33", "34"));
+        Snapshot(DeviceDatabase database, List<DeviceProfile> custom) {
+            this.database = database;
+            this.custom = Collections.unmodifiableList(custom);
+            Map<String, DeviceProfile> byName = new HashMap<>(custom.size() * 2);
+            for (DeviceProfile profile : custom) {
+                byName.put(profile.getDisplayName(), profile);
+            }
+            this.customByName = byName;
+            this.all = new AbstractList<DeviceProfile>() {
+                @Override
+                public DeviceProfile get(int index) {
+                    int catalogued = database.size();
+                    return index < catalogued ? database.get(index) : custom.get(index - catalogued);
+                }
+                
+                @Override
+                public int size() {
+                    return database.size() + custom.size();
+                }
+            };
+        }
+        
+        DeviceProfile find(String displayName) {
+            DeviceProfile custom = customByName.get(displayName);
+            return custom != null ? custom : database.find(displayName);
+        }
+        
+        Snapshot with(DeviceProfile profile) {
+            List<DeviceProfile> next = new ArrayList<>(custom.size() + 1);
+            boolean replaced = false;
+            for (DeviceProfile existing : custom) {
+                if (existing.getDisplayName().equals(profile.getDisplayName())) {
+                    next.add(profile);
+                    replaced = true;
+                } else {
+                    next.add(existing);
+                }
+            }
+            if (!replaced) {
+                next.add(profile);
+            }
+            return new Snapshot(database, next);
+        }
+        
+        /** This snapshot itself when there is no such custom profile. */
+        Snapshot without(String displayName) {
+            if (!customByName.containsKey(displayName)) {
+                return this;
+            }
+            List<DeviceProfile> next = new ArrayList<>(custom.size());
+            for (DeviceProfile existing : custom) {
+                if (!existing.getDisplayName().equals(displayName)) {
+                    next.add(existing);
+                }
+            }
+            return new Snapshot(database, next);
+        }
     }
 }
\ No newline at end of file
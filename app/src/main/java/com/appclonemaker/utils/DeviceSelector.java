@@ -0,0 +1,318 @@
+package com.appclonemaker.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks random device profiles from the catalogue rows matching a filter
+ * plus any matching custom profiles, each with probability proportional to
+ * its weight, e.g. its market share. Draws use Vose's alias method: one
+ * table built in O(n), then O(1) per draw whatever the number of devices.
+ *
+ * <p>A selector is immutable and may be shared; {@link #next} is as
+ * thread-safe as the random source passed in. {@link #newDraw()} starts a
+ * sequence without repeats for one batch of clones.
+ */
+public final class DeviceSelector {
+    
+    /** How likely a profile is to be picked, relative to the others; 0 excludes it. */
+    public interface Weigher {
+        double weightOf(DeviceProfile profile);
+    }
+    
+    public static final Weigher UNIFORM = profile -> 1;
+    
+    private static final String KEY_FILTER_DATABASE = "filterDevicesDatabase";
+    private static final String KEY_DATABASE_FILTERS = "devicesDatabaseFilters";
+    private static final String KEY_USE_ANDROID_VERSION = "devicesDatabaseUseAndroidVersion";
+    private static final String KEY_SDK_VERSIONS = "devicesDatabaseSdkVersions";
+    
+    private final DeviceDatabase database;
+    // Candidate i is database row rows[i], then custom profile i - rows.length
+    private final int[] rows;
+    private final List<DeviceProfile> customProfiles;
+    private final double[] weights;
+    private final AliasTable table;
+    
+    private DeviceSelector(DeviceDatabase database, int[] rows, List<DeviceProfile> customProfiles, Weigher weigher) {
+        // Candidates weighed out are never drawn, so they stay out of the tables
+        int[] drawableRows = new int[rows.length];
+        double[] drawableWeights = new double[rows.length + customProfiles.size()];
+        int count = 0;
+        for (int row : rows) {
+            double weight = weigher.weightOf(database.get(row));
+            if (isDrawable(weight)) {
+                drawableRows[count] = row;
+                drawableWeights[count++] = weight;
+            }
+        }
+        int rowCount = count;
+        List<DeviceProfile> drawableCustom = new ArrayList<>();
+        for (DeviceProfile profile : customProfiles) {
+            double weight = weigher.weightOf(profile);
+            if (isDrawable(weight)) {
+                drawableCustom.add(profile);
+                drawableWeights[count++] = weight;
+            }
+        }
+        
+        this.database = database;
+        this.rows = Arrays.copyOf(drawableRows, rowCount);
+        this.customProfiles = drawableCustom;
+        this.weights = Arrays.copyOf(drawableWeights, count);
+        this.table = AliasTable.build(identity(count), weights);
+    }
+    
+    /**
+     * Catalogue rows matching {@code filter} and custom profiles that match
+     * it too. A custom profile without SDK levels only matches a filter that
+     * lists none.
+     */
+    public static DeviceSelector of(DeviceDatabase database, DeviceDatabase.Filter filter,
+                                    List<DeviceProfile> customProfiles, Weigher weigher) {
+        List<DeviceProfile> matching = new ArrayList<>();
+        for (DeviceProfile profile : customProfiles) {
+            if (filter.matches(profile)) {
+                matching.add(profile);
+            }
+        }
+        return new DeviceSelector(database, database.select(filter), matching, weigher);
+    }
+    
+    /** Every profile in {@code profiles}, e.g. for tests and benchmarks. */
+    public static DeviceSelector of(List<DeviceProfile> profiles, Weigher weigher) {
+        return new DeviceSelector(DeviceDatabase.empty(), new int[0], profiles, weigher);
+    }
+    
+    /**
+     * The filter a clone config asks for: manufacturers from
+     * {@code devicesDatabaseFilters} when {@code filterDevicesDatabase} is on,
+     * and the SDK levels enabled in {@code devicesDatabaseSdkVersions} when
+     * {@code devicesDatabaseUseAndroidVersion} is on.
+     */
+    public static DeviceDatabase.Filter filterFor(Map<String, Object> config) {
+        DeviceDatabase.Filter filter = new DeviceDatabase.Filter();
+        if (Boolean.TRUE.equals(config.get(KEY_FILTER_DATABASE))) {
+            filter.manufacturers(toStrings(config.get(KEY_DATABASE_FILTERS)));
+        }
+        if (Boolean.TRUE.equals(config.get(KEY_USE_ANDROID_VERSION))) {
+            filter.sdkVersions(toSdkLevels(config.get(KEY_SDK_VERSIONS)));
+        }
+        return filter;
+    }
+    
+    public int size() {
+        return weights.length;
+    }
+    
+    public boolean isEmpty() {
+        return weights.length == 0;
+    }
+    
+    /** A weighted random profile, or null when there are none. Draws may repeat. */
+    public DeviceProfile next(IdentityGenerator.RandomSource random) {
+        return isEmpty() ? null : profile(table.sample(random));
+    }
+    
+    /** Starts a sequence of draws in which no profile repeats until all have been drawn. */
+    public Draw newDraw() {
+        return new Draw();
+    }
+    
+    private DeviceProfile profile(int candidate) {
+        return candidate < rows.length ? database.get(rows[candidate]) : customProfiles.get(candidate - rows.length);
+    }
+    
+    private static boolean isDrawable(double weight) {
+        // Also false for NaN
+        return weight > 0 && !Double.isInfinite(weight);
+    }
+    
+    private static int[] identity(int count) {
+        int[] items = new int[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = i;
+        }
+        return items;
+    }
+    
+    private static Collection<String> toStrings(Object value) {
+        if (!(value instanceof Collection)) {
+            return Collections.emptyList();
+        }
+        List<String> strings = new ArrayList<>();
+        for (Object item : (Collection<?>) value) {
+            if (item != null) {
+                strings.add(item.toString());
+            }
+        }
+        return strings;
+    }
+    
+    /** Accepts a list of levels or, as the config stores it, a map of level to enabled. */
+    private static Collection<Integer> toSdkLevels(Object value) {
+        List<Integer> levels = new ArrayList<>();
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!Boolean.FALSE.equals(entry.getValue())) {
+                    addSdkLevel(levels, entry.getKey());
+                }
+            }
+        } else if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                addSdkLevel(levels, item);
+            }
+        }
+        return levels;
+    }
+    
+    private static void addSdkLevel(List<Integer> levels, Object value) {
+        if (value instanceof Number) {
+            levels.add(((Number) value).intValue());
+        } else if (value != null) {
+            try {
+                // Gson reads numbers as doubles, so "33.0" as well as "33"
+                levels.add((int) Double.parseDouble(value.toString()));
+            } catch (NumberFormatException e) {
+                // Not a level; ignore it rather than fail the whole batch
+            }
+        }
+    }
+    
+    private static double nextDouble(IdentityGenerator.RandomSource random) {
+        return (random.nextLong() >>> 11) * 0x1.0p-53;
+    }
+    
+    /**
+     * Draws without replacement. Drawn profiles are rejected and drawn again,
+     * and once they make up half the weight of the table the table is rebuilt
+     * from the rest, so a draw takes two tries on average. After every profile
+     * has been drawn the sequence starts over. Not thread-safe.
+     */
+    public final class Draw {
+        private final BitSet drawn = new BitSet(weights.length);
+        private int remaining;
+        private AliasTable current;
+        private double drawnWeight;
+        
+        Draw() {
+            restart();
+        }
+        
+        /** The next profile, or null when the selector is empty. */
+        public DeviceProfile next(IdentityGenerator.RandomSource random) {
+            if (isEmpty()) {
+                return null;
+            }
+            if (remaining == 0) {
+                restart();
+            }
+            while (true) {
+                int candidate = current.sample(random);
+                if (drawn.get(candidate)) {
+                    continue;
+                }
+                drawn.set(candidate);
+                remaining--;
+                drawnWeight += weights[candidate];
+                if (remaining > 0 && drawnWeight * 2 > current.totalWeight) {
+                    rebuild();
+                }
+                return profile(candidate);
+            }
+        }
+        
+        private void restart() {
+            drawn.clear();
+            remaining = weights.length;
+            current = table;
+            drawnWeight = 0;
+        }
+        
+        private void rebuild() {
+            int[] items = new int[remaining];
+            double[] itemWeights = new double[remaining];
+            int count = 0;
+            for (int i = drawn.nextClearBit(0); i < weights.length; i = drawn.nextClearBit(i + 1)) {
+                items[count] = i;
+                itemWeights[count++] = weights[i];
+            }
+            current = AliasTable.build(items, itemWeights);
+            drawnWeight = 0;
+        }
+    }
+    
+    /**
+     * Vose's alias table: column {@code i} yields {@code items[i]} with
+     * probability {@code probability[i]} and {@code items[alias[i]]} otherwise,
+     * so a draw is one uniform column and one biased coin.
+     */
+    private static final class AliasTable {
+        final int[] items;
+        final double[] probability;
+        final int[] alias;
+        final double totalWeight;
+        
+        private AliasTable(int[] items, double[] probability, int[] alias, double totalWeight) {
+            this.items = items;
+            this.probability = probability;
+            this.alias = alias;
+            this.totalWeight = totalWeight;
+        }
+        
+        static AliasTable build(int[] items, double[] weights) {
+            int n = items.length;
+            double total = 0;
+            for (double weight : weights) {
+                total += weight;
+            }
+            
+            // Scale so the average column is exactly full
+            double[] probability = new double[n];
+            int[] alias = new int[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < n; i++) {
+                probability[i] = weights[i] * n / total;
+                if (probability[i] < 1) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            
+            // Top up each underfull column from an overfull one
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                alias[less] = more;
+                probability[more] = probability[more] + probability[less] - 1;
+                if (probability[more] < 1) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            // Whatever is left is full up to rounding error
+            while (largeCount > 0) {
+                probability[large[--largeCount]] = 1;
+            }
+            while (smallCount > 0) {
+                probability[small[--smallCount]] = 1;
+            }
+            return new AliasTable(items, probability, alias, total);
+        }
+        
+        int sample(IdentityGenerator.RandomSource random) {
+            int column = random.nextInt(items.length);
+            return items[nextDouble(random) < probability[column] ? column : alias[column]];
+        }
+    }
+}
\ No newline at end of file
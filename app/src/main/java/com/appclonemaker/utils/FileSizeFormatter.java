@@ -0,0 +1,23 @@
+package com.appclonemaker.utils;
+
+/**
+ * Human-readable byte counts ("12.3 MB"), shared by the file pickers and
+ * kept free of Android types.
+ */
+public final class FileSizeFormatter {
+    
+    private FileSizeFormatter() {
+    }
+    
+    public static String format(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        } else if (bytes < 1024 * 1024 * 1024) {
+            return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+        } else {
+            return String.format("%.1f GB", bytes / (1024.0 * 1024.0 * 1024.0));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,437 @@
+package com.appclonemaker.utils;
+
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generators for the device identifiers written into clone configs. Kept free
+ * of Android types so they can be exercised on a plain JVM.
+ *
+ * <p>Each identifier is encoded straight into a {@code char[]} of its final
+ * length, drawing several characters from every random word, so one string
+ * is the only allocation. The random source is pluggable: {@link #fast()} for
+ * throughput, {@link #secure()} for quality and {@link #seeded(long)} for
+ * reproducible batches.
+ */
+public final class IdentityGenerator {
+    
+    /** Setting keys filled by {@link #generateIdentity()}, in display order. */
+    public static final String[] IDENTITY_KEYS = {
+        "changeAndroidId",
+        "changeImei",
+        "changeAndroidSerial",
+        "changeWifiMacAddress",
+        "changeBluetoothMacAddress",
+        "changeEthernetMacAddress",
+        "changeGoogleAdvertisingId",
+        "changeGoogleServiceFrameworkId",
+        "changeFacebookAttributionId",
+        "changeAppSetId",
+        "changeOpenId",
+        "changeAmazonAdvertisingId",
+        "changeHuaweiAdvertisingId"
+    };
+    
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final char[] ALPHANUM = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+    private static final String[] MAC_OUIS = {"00:05:69", "00:1A:11", "00:E0:4C", "3C:5A:B4", "40:B8:9A", "BC:F5:AC", "D8:80:39"};
+    
+    // {latMin, latMax, lonMin, lonMax} boxes that are mostly land
+    private static final double[][] LANDMASSES = {
+        // America (North & South)
+        {-56, 72, -168, -34},
+        // Europe
+        {36, 71, -25, 45},
+        // Asia
+        {-11, 82, 25, 180},
+        // Australia
+        {-44, -10, 112, 154}
+    };
+    
+    private static final int IMEI_LENGTH = 15;
+    private static final int MAC_LENGTH = 17;
+    private static final int UUID_LENGTH = 36;
+    // Below this many identities a bulk task is filled on the current thread
+    private static final int BULK_SPLIT_THRESHOLD = 64;
+    
+    private static final IdentityGenerator FAST = new IdentityGenerator(new ThreadLocalSource());
+    
+    public interface RandomSource {
+        long nextLong();
+        
+        /** Uniform in {@code [0, bound)}. */
+        int nextInt(int bound);
+        
+        /**
+         * The source to use for one slot of a bulk run. Seeded sources derive
+         * an independent stream per slot so results do not depend on which
+         * thread fills which slot; shared sources return themselves.
+         */
+        RandomSource forSlot(long slot);
+    }
+    
+    /** One clone's worth of identifiers, keyed by setting key. */
+    public static final class Identity {
+        private final Map<String, String> values;
+        
+        Identity(Map<String, String> values) {
+            this.values = Collections.unmodifiableMap(values);
+        }
+        
+        public String get(String key) {
+            return values.get(key);
+        }
+        
+        public Map<String, String> getValues() {
+            return values;
+        }
+    }
+    
+    private final RandomSource random;
+    
+    public IdentityGenerator(RandomSource random) {
+        this.random = random;
+    }
+    
+    /** Per-thread {@link ThreadLocalRandom}; no contention, not cryptographic. */
+    public static IdentityGenerator fast() {
+        return FAST;
+    }
+    
+    /** A {@link SecureRandom}; slower, for identifiers that must not be predictable. */
+    public static IdentityGenerator secure() {
+        return new IdentityGenerator(new SecureSource(new SecureRandom()));
+    }
+    
+    /** Reproducible output for a given seed, including from the bulk API. */
+    public static IdentityGenerator seeded(long seed) {
+        return new IdentityGenerator(new SplitMixSource(seed));
+    }
+    
+    public String generateHex(int length) {
+        return hex(random, length, HEX_LOWER);
+    }
+    
+    public String generateAlphanum(int length) {
+        return alphanum(random, length);
+    }
+    
+    public String generateUuidV4() {
+        return uuidV4(random);
+    }
+    
+    public String generateMacAddress() {
+        return macAddress(random);
+    }
+    
+    public String generateLuhnCheckedImei() {
+        return imei(random);
+    }
+    
+    /**
+     * A fresh value for one of {@link #IDENTITY_KEYS}, or null when the key is
+     * not an identifier this class generates.
+     */
+    public String generateForKey(String key) {
+        return generateForKey(random, key);
+    }
+    
+    /** Random coordinates on a land mass, as {@code "lat,lon"} with six decimals. */
+    public String generateLocation() {
+        double[] area = LANDMASSES[random.nextInt(LANDMASSES.length)];
+        double latitude = area[0] + nextDouble(random) * (area[1] - area[0]);
+        double longitude = area[2] + nextDouble(random) * (area[3] - area[2]);
+        // Fixed locale: the config is parsed back with '.' as the decimal separator
+        return String.format(Locale.US, "%.6f,%.6f", latitude, longitude);
+    }
+    
+    /** A timestamp uniformly within {@code maxAgeMillis} before {@code now}. */
+    public long generateInstallTime(long now, long maxAgeMillis) {
+        return now - (long) (nextDouble(random) * maxAgeMillis);
+    }
+    
+    public <T> T pick(List<T> items) {
+        return items.get(random.nextInt(items.size()));
+    }
+    
+    /** The source this generator draws from, e.g. for a {@link DeviceSelector}. */
+    public RandomSource getRandomSource() {
+        return random;
+    }
+    
+    /**
+     * A generator for one slot of a batch. Seeded generators get an
+     * independent stream per slot; shared sources are returned unchanged.
+     */
+    public IdentityGenerator forSlot(long slot) {
+        RandomSource slotRandom = random.forSlot(slot);
+        return slotRandom == random ? this : new IdentityGenerator(slotRandom);
+    }
+    
+    public Identity generateIdentity() {
+        return identity(random);
+    }
+    
+    /**
+     * Fills {@code count} identities in parallel on the pool clone batches use.
+     * {@link ForkJoinPool#commonPool()} only exists from API 24.
+     */
+    public Identity[] generateIdentities(int count) {
+        return generateIdentities(count, CloneBatchGenerator.DefaultPool.INSTANCE);
+    }
+    
+    public Identity[] generateIdentities(int count, ForkJoinPool pool) {
+        Identity[] identities = new Identity[count];
+        pool.invoke(new BulkTask(random, identities, 0, count));
+        return identities;
+    }
+    
+    private static String generateForKey(RandomSource random, String key) {
+        switch (key) {
+            case "changeAndroidId":
+            case "changeGoogleServiceFrameworkId":
+                return hex(random, 16, HEX_LOWER);
+            case "changeImei":
+                return imei(random);
+            case "changeAndroidSerial":
+                return random.nextInt(2) == 0 ? alphanum(random, 12) : hex(random, 16, HEX_LOWER);
+            case "changeWifiMacAddress":
+            case "changeBluetoothMacAddress":
+            case "changeEthernetMacAddress":
+                return macAddress(random);
+            case "changeGoogleAdvertisingId":
+            case "changeFacebookAttributionId":
+            case "changeAppSetId":
+            case "changeOpenId":
+            case "changeAmazonAdvertisingId":
+            case "changeHuaweiAdvertisingId":
+                return uuidV4(random);
+            default:
+                return null;
+        }
+    }
+    
+    private static Identity identity(RandomSource random) {
+        Map<String, String> values = new LinkedHashMap<>(IDENTITY_KEYS.length * 2);
+        for (String key : IDENTITY_KEYS) {
+            values.put(key, generateForKey(random, key));
+        }
+        return new Identity(values);
+    }
+    
+    private static String hex(RandomSource random, int length, char[] digits) {
+        char[] out = new char[length];
+        long bits = 0;
+        for (int i = 0; i < length; i++) {
+            // 16 nibbles per random word
+            if ((i & 15) == 0) {
+                bits = random.nextLong();
+            }
+            out[i] = digits[(int) (bits & 0xF)];
+            bits >>>= 4;
+        }
+        return new String(out);
+    }
+    
+    private static String alphanum(RandomSource random, int length) {
+        char[] out = new char[length];
+        for (int i = 0; i < length; i++) {
+            out[i] = ALPHANUM[random.nextInt(ALPHANUM.length)];
+        }
+        return new String(out);
+    }
+    
+    private static String imei(RandomSource random) {
+        char[] out = new char[IMEI_LENGTH];
+        int sum = 0;
+        for (int i = 0; i < IMEI_LENGTH - 1; i++) {
+            int digit = random.nextInt(10);
+            out[i] = (char) ('0' + digit);
+            
+            // Luhn: double every second digit, folding two-digit results
+            if ((i & 1) == 1) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        out[IMEI_LENGTH - 1] = (char) ('0' + (10 - sum % 10) % 10);
+        return new String(out);
+    }
+    
+    private static String macAddress(RandomSource random) {
+        char[] out = new char[MAC_LENGTH];
+        String oui = MAC_OUIS[random.nextInt(MAC_OUIS.length)];
+        oui.getChars(0, oui.length(), out, 0);
+        
+        int host = random.nextInt(1 << 24);
+        for (int octet = 0, pos = oui.length(); octet < 3; octet++, pos += 3) {
+            int value = (host >>> (16 - octet * 8)) & 0xFF;
+            out[pos] = ':';
+            out[pos + 1] = HEX_UPPER[value >>> 4];
+            out[pos + 2] = HEX_UPPER[value & 0xF];
+        }
+        return new String(out);
+    }
+    
+    private static String uuidV4(RandomSource random) {
+        long msb = random.nextLong();
+        long lsb = random.nextLong();
+        // Version 4, IETF variant
+        msb = (msb & ~0xF000L) | 0x4000L;
+        lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        
+        char[] out = new char[UUID_LENGTH];
+        appendHex(out, 0, msb >>> 32, 8);
+        out[8] = '-';
+        appendHex(out, 9, msb >>> 16, 4);
+        out[13] = '-';
+        appendHex(out, 14, msb, 4);
+        out[18] = '-';
+        appendHex(out, 19, lsb >>> 48, 4);
+        out[23] = '-';
+        appendHex(out, 24, lsb, 12);
+        return new String(out);
+    }
+    
+    private static double nextDouble(RandomSource random) {
+        return (random.nextLong() >>> 11) * 0x1.0p-53;
+    }
+    
+    /** Writes the low {@code digits} nibbles of {@code value}, most significant first. */
+    private static void appendHex(char[] out, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            out[offset + i] = HEX_LOWER[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+    
+    private static class BulkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final RandomSource random;
+        private final Identity[] identities;
+        private final int from;
+        private final int to;
+        
+        BulkTask(RandomSource random, Identity[] identities, int from, int to) {
+            this.random = random;
+            this.identities = identities;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= BULK_SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    identities[i] = identity(random.forSlot(i));
+                }
+                return;
+            }
+            
+            int middle = (from + to) >>> 1;
+            invokeAll(new BulkTask(random, identities, from, middle),
+                    new BulkTask(random, identities, middle, to));
+        }
+    }
+    
+    private static class ThreadLocalSource implements RandomSource {
+        @Override
+        public long nextLong() {
+            return ThreadLocalRandom.current().nextLong();
+        }
+        
+        @Override
+        public int nextInt(int bound) {
+            return ThreadLocalRandom.current().nextInt(bound);
+        }
+        
+        @Override
+        public RandomSource forSlot(long slot) {
+            return this;
+        }
+    }
+    
+    private static class SecureSource implements RandomSource {
+        private final SecureRandom random;
+        
+        SecureSource(SecureRandom random) {
+            this.random = random;
+        }
+        
+        @Override
+        public long nextLong() {
+            return random.nextLong();
+        }
+        
+        @Override
+        public int nextInt(int bound) {
+            return random.nextInt(bound);
+        }
+        
+        @Override
+        public RandomSource forSlot(long slot) {
+            return this;
+        }
+    }
+    
+    /**
+     * SplitMix64, the generator behind {@code java.util.SplittableRandom},
+     * which is only available from API 24. Not thread-safe; bulk runs give
+     * each slot its own instance through {@link #forSlot(long)}.
+     */
+    private static class SplitMixSource implements RandomSource {
+        private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+        
+        private final long seed;
+        private long state;
+        
+        SplitMixSource(long seed) {
+            this.seed = seed;
+            this.state = seed;
+        }
+        
+        @Override
+        public long nextLong() {
+            state += GOLDEN_GAMMA;
+            return mix64(state);
+        }
+        
+        @Override
+        public int nextInt(int bound) {
+            // Lemire's multiply-shift with rejection, unbiased for any bound
+            long product = (nextLong() >>> 32) * bound;
+            int low = (int) product;
+            if ((low & 0xFFFFFFFFL) < (bound & 0xFFFFFFFFL)) {
+                long threshold = (0x100000000L - bound) % bound;
+                while ((low & 0xFFFFFFFFL) < threshold) {
+                    product = (nextLong() >>> 32) * bound;
+                    low = (int) product;
+                }
+            }
+            return (int) (product >>> 32);
+        }
+        
+        @Override
+        public RandomSource forSlot(long slot) {
+            return new SplitMixSource(mix64(seed + (slot + 1) * GOLDEN_GAMMA));
+        }
+        
+        private static long mix64(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
\ No newline at end of file
@@ -4,10 +4,16 @@ import com.appclonemaker.model.Category;
 import com.appclonemaker.model.Setting;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -33,7 +39,20 @@ public class JsonParser {
             "changeAmazonAdvertisingId": false,
             "changeHuaweiAdvertisingId": false,
             "changeLocale": "en_US",
-            "changeEthernetMacAddress": false
+            "changeEthernetMacAddress": false,
+            "androidId": "",
+            "imei": "",
+            "androidSerial": "",
+            "wifiMacAddress": "",
+            "bluetoothMacAddress": "",
+            "ethernetMacAddress": "",
+            "googleAdvertisingId": "",
+            "googleServiceFrameworkId": "",
+            "facebookAttributionId": "",
+            "appSetId": "",
+            "openId": "",
+            "amazonAdvertisingId": "",
+            "huaweiAdvertisingId": ""
         },
         "locationPrivacy": {
             "spoofLocation": false,
@@ -150,15 +169,86 @@ public class JsonParser {
     
     public static List<Category> parseConfiguration() {
         try {
-            Type mapType = new TypeToken<Map<String, Map<String, Object>>>(){}.getType();
-            Map<String, Map<String, Object>> configData = gson.fromJson(SAMPLE_CONFIG_JSON, mapType);
-            return parseConfigData(configData);
+            return parseConfiguration(new StringReader(SAMPLE_CONFIG_JSON));
         } catch (Exception e) {
             e.printStackTrace();
             return getDefaultCategories();
         }
     }
     
+    /**
+     * Streams a configuration document straight into categories and settings.
+     * Only the value of the setting currently being read is materialized, so no
+     * intermediate map of the whole document is ever built.
+     */
+    public static List<Category> parseConfiguration(Reader source) throws IOException {
+        List<Category> categories = new ArrayList<>();
+        
+        try (JsonReader reader = new JsonReader(source)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String categoryName = reader.nextName();
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    // Top-level entries that are not categories carry no settings
+                    reader.skipValue();
+                    continue;
+                }
+                
+                Category category = new Category(categoryName);
+                
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String settingKey = reader.nextName();
+                    Object settingValue = readValue(reader);
+                    
+                    // Duplicate keys: addSetting replaces, so the last occurrence wins as in JSON.parse
+                    category.addSetting(createSettingFromData(settingKey, settingValue));
+                }
+                reader.endObject();
+                
+                if (!category.getSettings().isEmpty()) {
+                    categories.add(category);
+                }
+            }
+            reader.endObject();
+        }
+        
+        return categories;
+    }
+    
+    private static Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NUMBER:
+                // Numbers stay doubles so both parse paths produce identical values
+                return reader.nextDouble();
+            case STRING:
+                return reader.nextString();
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readValue(reader));
+                }
+                reader.endArray();
+                return list;
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    map.put(reader.nextName(), readValue(reader));
+                }
+                reader.endObject();
+                return map;
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                throw new IllegalStateException("Unexpected token " + reader.peek() + " at " + reader.getPath());
+        }
+    }
+    
     public static List<Category> parseConfigData(Map<String, Map<String, Object>> configData) {
         List<Category> categories = new ArrayList<>();
         
@@ -187,20 +277,21 @@ public class JsonParser {
     }
     
     private static Setting createSettingFromData(String key, Object value) {
-        Setting.SettingType type = determineSettingType(key, value);
-        String name = formatSettingName(key);
+        SettingSchema schema = SettingSchema.forKey(key);
+        Setting.SettingType type = determineSettingType(schema, key, value);
+        String name = LabelFormatter.format(key);
         
         Setting setting = new Setting(key, name, type, value);
         
         // Set specific properties based on key
-        setupSettingProperties(setting, key, value);
+        setupSettingProperties(setting, schema);
         
         return setting;
     }
     
-    private static Setting.SettingType determineSettingType(String key, Object value) {
+    private static Setting.SettingType determineSettingType(SettingSchema schema, String key, Object value) {
         // Check for specific custom editors first
-        if (isCustomEditorKey(key)) {
+        if (schema.getEditorKind() == SettingSchema.EditorKind.CUSTOM) {
             return Setting.SettingType.CUSTOM;
         }
         
@@ -210,15 +301,14 @@ public class JsonParser {
         } else if (value instanceof Number) {
             return Setting.SettingType.NUMBER;
         } else if (value instanceof String) {
-            String stringValue = (String) value;
-            
             // Check if it's a known dropdown option
-            if (isDropdownKey(key)) {
+            if (schema.getEditorKind() == SettingSchema.EditorKind.DROPDOWN) {
                 return Setting.SettingType.DROPDOWN;
             }
             
             // Check for long text fields
-            if (key.contains("Expression") || key.contains("Content") || key.equals("customBuildPropsFile")) {
+            if (schema.getEditorKind() == SettingSchema.EditorKind.TEXT
+                    || key.contains("Expression") || key.contains("Content")) {
                 return Setting.SettingType.TEXT;
             }
             
@@ -232,220 +322,18 @@ public class JsonParser {
         return Setting.SettingType.STRING; // Default fallback
     }
     
-    private static boolean isCustomEditorKey(String key) {
-        String[] customKeys = {
-            "bundleAppData",
-            "deleteOnExit", 
-            "spoofLocation",
-            "buildsProps",
-            "webViewUrlDataFilterList",
-            "overrideSharedPreferences",
-            "customBuildProps",
-            "webViewCookies",
-            "hostsBlocker",
-            "webViewOverrideUrlLoadingList",
-            "skipDialogsStrings",
-            "bundleFilesDirectories",
-            "bundleInternalFilesDirectories"
-        };
-        
-        for (String customKey : customKeys) {
-            if (key.equals(customKey)) {
-                return true;
-            }
-        }
-        
-        return false;
-    }
-    
-    private static boolean isDropdownKey(String key) {
-        String[] dropdownKeys = {
-            "changeLocale",
-            "spoofLocationApi",
-            "spoofLocationCompatibilityMode",
-            "relativeInstallUpdateTimeUnit",
-            "dnsOverHttpsSilent",
-            "webViewUrlDataMonitorFilter",
-            "showWebViewSourceCodeFilter",
-            "addSnow",
-            "pictureInPicture"
-        };
-        
-        for (String dropdownKey : dropdownKeys) {
-            if (key.equals(dropdownKey)) {
-                return true;
-            }
-        }
-        
-        return false;
-    }
-    
-    private static void setupSettingProperties(Setting setting, String key, Object value) {
-        switch (key) {
-            case "changeLocale":
-                setting.setOptions(getLocaleOptions());
-                break;
-                
-            case "spoofLocationApi":
-                setting.setOptions(getLocationApiOptions());
-                break;
-                
-            case "spoofLocationCompatibilityMode":
-                setting.setOptions(getCompatibilityModeOptions());
-                break;
-                
-            case "relativeInstallUpdateTimeUnit":
-                setting.setOptions(getTimeUnitOptions());
-                break;
-                
-            case "webViewUrlDataMonitorFilter":
-            case "showWebViewSourceCodeFilter":
-                setting.setOptions(getFilterOptions());
-                break;
-                
-            case "addSnow":
-                setting.setOptions(getSnowOptions());
-                break;
-                
-            case "pictureInPicture":
-                setting.setOptions(getPictureInPictureOptions());
-                break;
+    private static void setupSettingProperties(Setting setting, SettingSchema schema) {
+        if (schema.getOptions() != null) {
+            setting.setOptions(schema.getOptions());
         }
         
         // Mark as parent setting if it has related child settings
-        if (isParentSetting(key)) {
+        if (schema.isParentSetting()) {
             setting.setParentSetting(true);
         }
         
         // Add descriptions for certain settings
-        setting.setDescription(getSettingDescription(key));
-    }
-    
-    private static List<String> getLocaleOptions() {
-        List<String> options = new ArrayList<>();
-        options.add("en_US");
-        options.add("en_GB");
-        options.add("en_CA");
-        options.add("en_AU");
-        options.add("de_DE");
-        options.add("fr_FR");
-        options.add("es_ES");
-        options.add("it_IT");
-        options.add("pt_BR");
-        options.add("zh_CN");
-        options.add("zh_TW");
-        options.add("ja_JP");
-        options.add("ko_KR");
-        options.add("ru_RU");
-        options.add("CUSTOM");
-        return options;
-    }
-    
-    private static List<String> getLocationApiOptions() {
-        List<String> options = new ArrayList<>();
-        options.add("");
-        options.add("Google");
-        options.add("OpenStreetMap");
-        options.add("CUSTOM");
-        return options;
-    }
-    
-    private static List<String> getCompatibilityModeOptions() {
-        List<String> options = new ArrayList<>();
-        options.add("PERMISSIVE");
-        options.add("RESTRICTIVE");
-        return options;
-    }
-    
-    private static List<String> getTimeUnitOptions() {
-        List<String> options = new ArrayList<>();
-        options.add("days");
-        options.add("weeks");
-        options.add("months");
-        return options;
-    }
-    
-    private static List<String> getFilterOptions() {
-        List<String> options = new ArrayList<>();
-        options.add("DISABLED");
-        options.add("INCLUDE");
-        options.add("EXCLUDE");
-        return options;
-    }
-    
-    private static List<String> getSnowOptions() {
-        List<String> options = new ArrayList<>();
-        options.add("");
-        options.add("flake");
-        options.add("heart");
-        options.add("star");
-        options.add("custom");
-        return options;
-    }
-    
-    private static List<String> getPictureInPictureOptions() {
-        List<String> options = new ArrayList<>();
-        options.add("");
-        options.add("generic");
-        options.add("youtube");
-        options.add("custom");
-        return options;
-    }
-    
-    private static boolean isParentSetting(String key) {
-        String[] parentKeys = {
-            "spoofLocation",
-            "buildsProps",
-            "bundleAppData",
-            "deleteOnExit",
-            "randomizeBuildProps",
-            "changeInstallUpdateTime",
-            "webViewPrivacyOptions",
-            "webViewUrlDataMonitor",
-            "showWebViewSourceCode",
-            "hostsBlocker"
-        };
-        
-        for (String parentKey : parentKeys) {
-            if (key.equals(parentKey)) {
-                return true;
-            }
-        }
-        
-        return false;
-    }
-    
-    private static String getSettingDescription(String key) {
-        Map<String, String> descriptions = new HashMap<>();
-        descriptions.put("changeAndroidId", "Generate a new random Android ID");
-        descriptions.put("changeImei", "Generate a new random IMEI number");
-        descriptions.put("changeAndroidSerial", "Generate a new random Android serial number");
-        descriptions.put("changeWifiMacAddress", "Generate a new random WiFi MAC address");
-        descriptions.put("changeBluetoothMacAddress", "Generate a new random Bluetooth MAC address");
-        descriptions.put("changeImsi", "Generate a new random IMSI number");
-        descriptions.put("spoofLocation", "Fake GPS location coordinates");
-        descriptions.put("buildsProps", "Modify Android build properties");
-        descriptions.put("bundleAppData", "Include app data in the clone");
-        descriptions.put("deleteOnExit", "Delete files and directories when app exits");
-        descriptions.put("webViewPrivacyOptions", "Configure WebView privacy settings");
-        descriptions.put("webViewUrlDataMonitor", "Monitor and modify WebView URL data");
-        descriptions.put("showWebViewSourceCode", "Display WebView source code");
-        descriptions.put("hostsBlocker", "Block specific hosts/domains");
-        
-        return descriptions.getOrDefault(key, "");
-    }
-    
-    private static String formatSettingName(String key) {
-        // Convert camelCase to readable format
-        String formatted = key.replaceAll("([A-Z])", " $1")
-                             .replaceAll("^.", str -> str.toUpperCase())
-                             .replace("Web View", "WebView")
-                             .replace("Dns Over Https", "DNS over HTTPS")
-                             .replace("Imei", "IMEI")
-                             .replace("Imsi", "IMSI")
-                             .replace("Mac Address", "MAC Address");
-        
-        return formatted.trim();
+        setting.setDescription(schema.getDescription());
     }
     
     private static List<Category> getDefaultCategories() {
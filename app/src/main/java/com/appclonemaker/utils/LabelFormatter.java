@@ -0,0 +1,71 @@
+package com.appclonemaker.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns camelCase keys such as {@code webViewUrlDataMonitor} into display
+ * labels ("WebView Url Data Monitor"). Labels are computed with a single
+ * character pass and kept in a small LRU cache, so rebinding a row for a key
+ * that was already shown does not allocate.
+ */
+public final class LabelFormatter {
+    
+    private static final int MAX_CACHED_LABELS = 512;
+    
+    private static final Map<String, String> cache =
+            new LinkedHashMap<String, String>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_CACHED_LABELS;
+                }
+            };
+    
+    private LabelFormatter() {
+    }
+    
+    public static String format(String key) {
+        if (key == null) {
+            return "";
+        }
+        
+        synchronized (cache) {
+            String label = cache.get(key);
+            if (label == null) {
+                label = buildLabel(key);
+                cache.put(key, label);
+            }
+            return label;
+        }
+    }
+    
+    private static String buildLabel(String key) {
+        int length = key.length();
+        StringBuilder sb = new StringBuilder(length + 8);
+        
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (i == 0) {
+                sb.append(Character.toUpperCase(c));
+                continue;
+            }
+            
+            // Split on lower-to-upper boundaries only, so acronyms like "IMEI"
+            // and labels that are already formatted pass through unchanged
+            char previous = key.charAt(i - 1);
+            if (Character.isUpperCase(c)
+                    && (Character.isLowerCase(previous) || Character.isDigit(previous))) {
+                sb.append(' ');
+            }
+            sb.append(c);
+        }
+        
+        return sb.toString()
+                 .replace("Web View", "WebView")
+                 .replace("Dns Over Https", "DNS over HTTPS")
+                 .replace("Imei", "IMEI")
+                 .replace("Imsi", "IMSI")
+                 .replace("Mac Address", "MAC Address")
+                 .trim();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.appclonemaker.utils;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Crash-safe file replacement. Content goes to a temp file next to the
+ * target, is fsynced, and only then renamed over the target in one step, so
+ * readers see either the old file or the complete new one. The directory is
+ * synced after the rename so the new file survives a power loss. The file
+ * being replaced is kept as one previous generation ({@code <name>.prev}), a
+ * hard link or, where links are not supported, a copy.
+ */
+public final class SafeFileWriter {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String PREVIOUS_SUFFIX = ".prev";
+    
+    public interface Content {
+        void writeTo(Writer writer) throws IOException;
+    }
+    
+    private SafeFileWriter() {
+    }
+    
+    public static void write(File target, String content) throws IOException {
+        write(target, writer -> writer.write(content));
+    }
+    
+    public static void write(File target, Content content) throws IOException {
+        File temp = getTempFile(target);
+        
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            content.writeTo(writer);
+            writer.flush();
+            out.getChannel().force(true);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            temp.delete();
+            throw e;
+        }
+        out.close();
+        
+        commit(temp, target);
+    }
+    
+    public static void write(File target, byte[] content) throws IOException {
+        File temp = getTempFile(target);
+        
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            out.write(content);
+            out.getChannel().force(true);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            temp.delete();
+            throw e;
+        }
+        out.close();
+        
+        commit(temp, target);
+    }
+    
+    /** The temp file {@link #write} stages content in before {@link #commit}. */
+    public static File getTempFile(File target) {
+        return new File(target.getParentFile(), target.getName() + TEMP_SUFFIX);
+    }
+    
+    /**
+     * Moves a fully written and synced temp file over the target, keeping the
+     * old target as its previous generation. For writers that stream into
+     * {@link #getTempFile} themselves instead of going through {@link #write}.
+     */
+    public static void commit(File temp, File target) throws IOException {
+        if (target.exists()) {
+            try {
+                keepPreviousGeneration(target);
+            } catch (IOException e) {
+                temp.delete();
+                throw e;
+            }
+        }
+        // rename(2) replaces the destination atomically on the same filesystem,
+        // so the target is never missing, not even for a moment
+        if (!temp.renameTo(target)) {
+            throw new IOException("Could not move " + temp + " into place");
+        }
+        syncDirectory(target.getParentFile());
+    }
+    
+    public static File getPreviousGeneration(File target) {
+        return new File(target.getParentFile(), target.getName() + PREVIOUS_SUFFIX);
+    }
+    
+    private static void keepPreviousGeneration(File target) throws IOException {
+        File previous = getPreviousGeneration(target);
+        // Staged under a temp name, so a crash never leaves a partial previous generation
+        File staged = getTempFile(previous);
+        staged.delete();
+        if (!link(target, staged)) {
+            copy(target, staged);
+        }
+        if (!staged.renameTo(previous)) {
+            staged.delete();
+            throw new IOException("Could not keep previous generation of " + target);
+        }
+    }
+    
+    private static boolean link(File source, File link) {
+        try {
+            Os.link(source.getPath(), link.getPath());
+        } catch (ErrnoException e) {
+            // E.g. external storage, whose filesystem has no hard links
+            return false;
+        }
+        return link.exists();
+    }
+    
+    private static void copy(File source, File destination) throws IOException {
+        try (FileInputStream in = new FileInputStream(source);
+             FileOutputStream out = new FileOutputStream(destination)) {
+            FileChannel from = in.getChannel();
+            FileChannel to = out.getChannel();
+            long size = from.size();
+            for (long position = 0; position < size; ) {
+                position += from.transferTo(position, size - position, to);
+            }
+            to.force(true);
+        }
+    }
+    
+    /** Persists the renames in {@code directory}; a directory that cannot be synced is left as is. */
+    private static void syncDirectory(File directory) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            FileDescriptor fd = Os.open(directory.getPath(), OsConstants.O_RDONLY, 0);
+            try {
+                Os.fsync(fd);
+            } finally {
+                Os.close(fd);
+            }
+        } catch (ErrnoException e) {
+            // Some filesystems, e.g. FUSE-backed external storage, refuse to sync directories
+        }
+    }
+}
\ No newline at end of file
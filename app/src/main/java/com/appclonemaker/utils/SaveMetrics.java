@@ -0,0 +1,89 @@
+package com.appclonemaker.utils;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counters for configuration saves: how many ran, how long the writes took
+ * and how many bytes they put on disk, plus how many were skipped because
+ * nothing had changed. Updated from the writer thread, read from anywhere.
+ */
+public class SaveMetrics {
+    
+    private long fullSaves;
+    private long incrementalSaves;
+    private long skippedSaves;
+    private long failedSaves;
+    private long totalDurationNanos;
+    private long maxDurationNanos;
+    private long lastDurationNanos;
+    private long totalBytes;
+    private long lastBytes;
+    
+    synchronized void recordSave(boolean full, long durationNanos, long bytes) {
+        if (full) {
+            fullSaves++;
+        } else {
+            incrementalSaves++;
+        }
+        totalDurationNanos += durationNanos;
+        maxDurationNanos = Math.max(maxDurationNanos, durationNanos);
+        lastDurationNanos = durationNanos;
+        totalBytes += bytes;
+        lastBytes = bytes;
+    }
+    
+    synchronized void recordSkipped() {
+        skippedSaves++;
+    }
+    
+    synchronized void recordFailure() {
+        failedSaves++;
+    }
+    
+    public synchronized long getFullSaves() {
+        return fullSaves;
+    }
+    
+    public synchronized long getIncrementalSaves() {
+        return incrementalSaves;
+    }
+    
+    public synchronized long getSkippedSaves() {
+        return skippedSaves;
+    }
+    
+    public synchronized long getFailedSaves() {
+        return failedSaves;
+    }
+    
+    public synchronized long getAverageDurationMillis() {
+        long saves = fullSaves + incrementalSaves;
+        return saves == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalDurationNanos / saves);
+    }
+    
+    public synchronized long getMaxDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxDurationNanos);
+    }
+    
+    public synchronized long getLastDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastDurationNanos);
+    }
+    
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    public synchronized long getLastBytes() {
+        return lastBytes;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US,
+                "saves: %d full, %d incremental, %d skipped, %d failed; last %d ms / %s, avg %d ms, max %d ms, total %s",
+                fullSaves, incrementalSaves, skippedSaves, failedSaves,
+                getLastDurationMillis(), FileSizeFormatter.format(lastBytes),
+                getAverageDurationMillis(), getMaxDurationMillis(), FileSizeFormatter.format(totalBytes));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.appclonemaker.utils;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.model.Setting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable search index over the settings of a configuration. Setting
+ * names, keys and descriptions are lowercased once when the index is built
+ * and every trigram points at the settings that contain it, so a query only
+ * verifies the settings sharing its rarest trigram instead of scanning and
+ * lowercasing everything on each keystroke.
+ */
+public final class SearchIndex {
+    
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] NO_MATCHES = new int[0];
+    
+    private final List<Category> categories;
+    private final Setting[] settings;
+    private final Category[] owners;
+    private final String[] haystacks;
+    private final Map<String, int[]> postings;
+    
+    private SearchIndex(List<Category> categories, Setting[] settings, Category[] owners,
+                        String[] haystacks, Map<String, int[]> postings) {
+        this.categories = categories;
+        this.settings = settings;
+        this.owners = owners;
+        this.haystacks = haystacks;
+        this.postings = postings;
+    }
+    
+    public static SearchIndex build(List<Category> categories) {
+        int count = 0;
+        for (Category category : categories) {
+            count += category.getSettings().size();
+        }
+        
+        Setting[] settings = new Setting[count];
+        Category[] owners = new Category[count];
+        String[] haystacks = new String[count];
+        Map<String, List<Integer>> grams = new HashMap<>();
+        
+        int index = 0;
+        for (Category category : categories) {
+            for (Setting setting : category.getSettings()) {
+                String haystack = buildHaystack(setting);
+                settings[index] = setting;
+                owners[index] = category;
+                haystacks[index] = haystack;
+                
+                for (int i = 0; i + GRAM_LENGTH <= haystack.length(); i++) {
+                    String gram = haystack.substring(i, i + GRAM_LENGTH);
+                    List<Integer> posting = grams.get(gram);
+                    if (posting == null) {
+                        posting = new ArrayList<>();
+                        grams.put(gram, posting);
+                    }
+                    // Settings are visited in order, so a repeat can only be the last entry
+                    if (posting.isEmpty() || posting.get(posting.size() - 1) != index) {
+                        posting.add(index);
+                    }
+                }
+                index++;
+            }
+        }
+        
+        Map<String, int[]> postings = new HashMap<>(grams.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : grams.entrySet()) {
+            List<Integer> posting = entry.getValue();
+            int[] ids = new int[posting.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = posting.get(i);
+            }
+            postings.put(entry.getKey(), ids);
+        }
+        
+        return new SearchIndex(Collections.unmodifiableList(new ArrayList<>(categories)),
+                settings, owners, haystacks, postings);
+    }
+    
+    /**
+     * Returns the categories with only the settings whose name, key or
+     * description contains {@code query}, ignoring case. Categories without
+     * a match are dropped; an empty query returns every category unchanged.
+     */
+    public List<Category> search(String query) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            return categories;
+        }
+        
+        List<Category> results = new ArrayList<>();
+        Category current = null;
+        Category filtered = null;
+        
+        int[] candidates = candidatesFor(needle);
+        int limit = candidates != null ? candidates.length : settings.length;
+        for (int i = 0; i < limit; i++) {
+            int id = candidates != null ? candidates[i] : i;
+            if (!haystacks[id].contains(needle)) {
+                continue;
+            }
+            if (owners[id] != current) {
+                current = owners[id];
+                filtered = new Category(current.getName());
+                results.add(filtered);
+            }
+            filtered.addSetting(settings[id]);
+        }
+        
+        return results;
+    }
+    
+    /** The shortest posting list among the query's trigrams, or null to scan everything. */
+    private int[] candidatesFor(String needle) {
+        if (needle.length() < GRAM_LENGTH) {
+            return null;
+        }
+        
+        int[] best = null;
+        for (int i = 0; i + GRAM_LENGTH <= needle.length(); i++) {
+            int[] posting = postings.get(needle.substring(i, i + GRAM_LENGTH));
+            if (posting == null) {
+                return NO_MATCHES;
+            }
+            if (best == null || posting.length < best.length) {
+                best = posting;
+            }
+        }
+        return best;
+    }
+    
+    private static String buildHaystack(Setting setting) {
+        // Fields are separated by a newline so a query cannot match across them
+        StringBuilder sb = new StringBuilder();
+        sb.append(setting.getName() != null ? setting.getName() : "").append('\n');
+        sb.append(setting.getKey() != null ? setting.getKey() : "").append('\n');
+        sb.append(setting.getDescription() != null ? setting.getDescription() : "");
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
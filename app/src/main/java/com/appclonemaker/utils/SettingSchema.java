@@ -0,0 +1,215 @@
+package com.appclonemaker.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static description of every known setting key: which editor it uses,
+ * whether it owns child settings, its dropdown options, its description and,
+ * for identifier toggles, the key their value is stored under.
+ * The registry is built once and is immutable, so classifying a key is a
+ * single hash lookup.
+ */
+public final class SettingSchema {
+    
+    public enum EditorKind {
+        DEFAULT,
+        CUSTOM,
+        DROPDOWN,
+        TEXT
+    }
+    
+    private static final SettingSchema UNKNOWN = new SettingSchema(EditorKind.DEFAULT, false, null, "", null);
+    
+    private static final Map<String, SettingSchema> REGISTRY = buildRegistry();
+    
+    private final EditorKind editorKind;
+    private final boolean parentSetting;
+    private final List<String> options;
+    private final String description;
+    private final String valueKey;
+    
+    private SettingSchema(EditorKind editorKind, boolean parentSetting, List<String> options, String description,
+                          String valueKey) {
+        this.editorKind = editorKind;
+        this.parentSetting = parentSetting;
+        this.options = options;
+        this.description = description;
+        this.valueKey = valueKey;
+    }
+    
+    public static SettingSchema forKey(String key) {
+        SettingSchema schema = REGISTRY.get(key);
+        return schema != null ? schema : UNKNOWN;
+    }
+    
+    public EditorKind getEditorKind() {
+        return editorKind;
+    }
+    
+    public boolean isParentSetting() {
+        return parentSetting;
+    }
+    
+    /** Dropdown options, shared and unmodifiable; {@code null} when the key has none. */
+    public List<String> getOptions() {
+        return options;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    /**
+     * The config key holding the identifier this toggle changes to, e.g.
+     * {@code androidId} for {@code changeAndroidId}; {@code null} when the
+     * key is not an identifier toggle.
+     */
+    public String getValueKey() {
+        return valueKey;
+    }
+    
+    private static Map<String, SettingSchema> buildRegistry() {
+        Map<String, Builder> builders = new HashMap<>();
+        
+        // Settings with a dedicated editor
+        editor(builders, EditorKind.CUSTOM,
+                "bundleAppData",
+                "deleteOnExit",
+                "spoofLocation",
+                "buildsProps",
+                "webViewUrlDataFilterList",
+                "overrideSharedPreferences",
+                "customBuildProps",
+                "webViewCookies",
+                "hostsBlocker",
+                "webViewOverrideUrlLoadingList",
+                "skipDialogsStrings",
+                "bundleFilesDirectories",
+                "bundleInternalFilesDirectories");
+        
+        editor(builders, EditorKind.DROPDOWN,
+                "changeLocale",
+                "spoofLocationApi",
+                "spoofLocationCompatibilityMode",
+                "relativeInstallUpdateTimeUnit",
+                "dnsOverHttpsSilent",
+                "webViewUrlDataMonitorFilter",
+                "showWebViewSourceCodeFilter",
+                "addSnow",
+                "pictureInPicture");
+        
+        editor(builders, EditorKind.TEXT, "customBuildPropsFile");
+        
+        // Dropdown options
+        options(builders, "changeLocale",
+                "en_US", "en_GB", "en_CA", "en_AU", "de_DE", "fr_FR", "es_ES", "it_IT",
+                "pt_BR", "zh_CN", "zh_TW", "ja_JP", "ko_KR", "ru_RU", "CUSTOM");
+        options(builders, "spoofLocationApi", "", "Google", "OpenStreetMap", "CUSTOM");
+        options(builders, "spoofLocationCompatibilityMode", "PERMISSIVE", "RESTRICTIVE");
+        options(builders, "relativeInstallUpdateTimeUnit", "days", "weeks", "months");
+        List<String> filterOptions = list("DISABLED", "INCLUDE", "EXCLUDE");
+        entry(builders, "webViewUrlDataMonitorFilter").options = filterOptions;
+        entry(builders, "showWebViewSourceCodeFilter").options = filterOptions;
+        options(builders, "addSnow", "", "flake", "heart", "star", "custom");
+        options(builders, "pictureInPicture", "", "generic", "youtube", "custom");
+        
+        // Settings that have related child settings
+        for (String key : new String[] {
+                "spoofLocation",
+                "buildsProps",
+                "bundleAppData",
+                "deleteOnExit",
+                "randomizeBuildProps",
+                "changeInstallUpdateTime",
+                "webViewPrivacyOptions",
+                "webViewUrlDataMonitor",
+                "showWebViewSourceCode",
+                "hostsBlocker"}) {
+            entry(builders, key).parentSetting = true;
+        }
+        
+        // Identifier toggles and the keys their values are stored under
+        valueKey(builders, "changeAndroidId", "androidId");
+        valueKey(builders, "changeImei", "imei");
+        valueKey(builders, "changeAndroidSerial", "androidSerial");
+        valueKey(builders, "changeWifiMacAddress", "wifiMacAddress");
+        valueKey(builders, "changeBluetoothMacAddress", "bluetoothMacAddress");
+        valueKey(builders, "changeEthernetMacAddress", "ethernetMacAddress");
+        valueKey(builders, "changeGoogleAdvertisingId", "googleAdvertisingId");
+        valueKey(builders, "changeGoogleServiceFrameworkId", "googleServiceFrameworkId");
+        valueKey(builders, "changeFacebookAttributionId", "facebookAttributionId");
+        valueKey(builders, "changeAppSetId", "appSetId");
+        valueKey(builders, "changeOpenId", "openId");
+        valueKey(builders, "changeAmazonAdvertisingId", "amazonAdvertisingId");
+        valueKey(builders, "changeHuaweiAdvertisingId", "huaweiAdvertisingId");
+        
+        // Descriptions
+        description(builders, "changeAndroidId", "Generate a new random Android ID");
+        description(builders, "changeImei", "Generate a new random IMEI number");
+        description(builders, "changeAndroidSerial", "Generate a new random Android serial number");
+        description(builders, "changeWifiMacAddress", "Generate a new random WiFi MAC address");
+        description(builders, "changeBluetoothMacAddress", "Generate a new random Bluetooth MAC address");
+        description(builders, "changeImsi", "Generate a new random IMSI number");
+        description(builders, "spoofLocation", "Fake GPS location coordinates");
+        description(builders, "buildsProps", "Modify Android build properties");
+        description(builders, "bundleAppData", "Include app data in the clone");
+        description(builders, "deleteOnExit", "Delete files and directories when app exits");
+        description(builders, "webViewPrivacyOptions", "Configure WebView privacy settings");
+        description(builders, "webViewUrlDataMonitor", "Monitor and modify WebView URL data");
+        description(builders, "showWebViewSourceCode", "Display WebView source code");
+        description(builders, "hostsBlocker", "Block specific hosts/domains");
+        
+        Map<String, SettingSchema> registry = new HashMap<>(builders.size() * 2);
+        for (Map.Entry<String, Builder> entry : builders.entrySet()) {
+            registry.put(entry.getKey(), entry.getValue().build());
+        }
+        return Collections.unmodifiableMap(registry);
+    }
+    
+    private static Builder entry(Map<String, Builder> builders, String key) {
+        Builder builder = builders.get(key);
+        if (builder == null) {
+            builder = new Builder();
+            builders.put(key, builder);
+        }
+        return builder;
+    }
+    
+    private static void editor(Map<String, Builder> builders, EditorKind kind, String... keys) {
+        for (String key : keys) {
+            entry(builders, key).editorKind = kind;
+        }
+    }
+    
+    private static void options(Map<String, Builder> builders, String key, String... values) {
+        entry(builders, key).options = list(values);
+    }
+    
+    private static void description(Map<String, Builder> builders, String key, String description) {
+        entry(builders, key).description = description;
+    }
+    
+    private static void valueKey(Map<String, Builder> builders, String key, String valueKey) {
+        entry(builders, key).valueKey = valueKey;
+    }
+    
+    private static List<String> list(String... values) {
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+    
+    private static class Builder {
+        EditorKind editorKind = EditorKind.DEFAULT;
+        boolean parentSetting;
+        List<String> options;
+        String description = "";
+        String valueKey;
+        
+        SettingSchema build() {
+            return new SettingSchema(editorKind, parentSetting, options, description, valueKey);
+        }
+    }
+}
\ No newline at end of file
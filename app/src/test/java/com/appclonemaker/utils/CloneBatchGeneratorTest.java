@@ -0,0 +1,170 @@
+package com.appclonemaker.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CloneBatchGeneratorTest {
+    
+    private static final int COUNT = 50;
+    
+    @Test
+    public void enabledTogglesGetUniqueValuesUnderTheirValueKeys() throws IOException {
+        Map<String, Object> template = template();
+        template.put("changeAndroidId", true);
+        template.put("changeImei", true);
+        
+        Map<Integer, Map<String, Object>> clones = generate(template);
+        
+        Set<String> androidIds = new HashSet<>();
+        for (Map<String, Object> clone : clones.values()) {
+            // The toggles keep their boolean type
+            assertEquals(Boolean.TRUE, clone.get("changeAndroidId"));
+            assertEquals(Boolean.FALSE, clone.get("changeWifiMacAddress"));
+            
+            String androidId = (String) clone.get("androidId");
+            assertEquals(16, androidId.length());
+            assertTrue(androidIds.add(androidId));
+            assertEquals(15, ((String) clone.get("imei")).length());
+            assertEquals("", clone.get("wifiMacAddress"));
+        }
+    }
+    
+    @Test
+    public void valuesGoToKeysTheConfigDefines() throws IOException {
+        Map<String, Object> template = ConfigMapBuilder.build(JsonParser.parseConfiguration());
+        for (String key : IdentityGenerator.IDENTITY_KEYS) {
+            String valueKey = SettingSchema.forKey(key).getValueKey();
+            assertNotNull(key, valueKey);
+            assertEquals(valueKey, "", template.get(valueKey));
+            template.put(key, true);
+        }
+        
+        for (Map<String, Object> clone : generate(template).values()) {
+            assertEquals(template.keySet(), clone.keySet());
+            for (String key : IdentityGenerator.IDENTITY_KEYS) {
+                assertFalse(key, ((String) clone.get(SettingSchema.forKey(key).getValueKey())).isEmpty());
+            }
+        }
+    }
+    
+    @Test
+    public void disabledSwitchesKeepTheTemplateValues() throws IOException {
+        for (Map<String, Object> clone : generate(template()).values()) {
+            assertEquals(template(), clone);
+        }
+    }
+    
+    @Test
+    public void enabledSwitchesRandomizeDeviceLocationAndInstallTime() throws IOException {
+        Map<String, Object> template = template();
+        template.put("buildsProps", true);
+        template.put("randomizeBuildProps", true);
+        template.put("spoofLocation", true);
+        template.put("changeInstallUpdateTime", true);
+        
+        Set<String> models = new HashSet<>();
+        for (Map<String, Object> clone : generate(template).values()) {
+            models.add((String) clone.get(DeviceProfile.KEY_MODEL));
+            Double.parseDouble((String) clone.get("spoofLocationLatitude"));
+            Double.parseDouble((String) clone.get("spoofLocationLongitude"));
+            assertTrue(clone.get("customInstallUpdateTime") instanceof Long);
+        }
+        // Ten devices, fifty clones: every device is used before any repeats
+        assertEquals(10, models.size());
+    }
+    
+    @Test
+    public void relativeInstallTimeIsNotReplaced() throws IOException {
+        Map<String, Object> template = template();
+        template.put("changeInstallUpdateTime", true);
+        template.put("relativeInstallUpdateTime", true);
+        
+        for (Map<String, Object> clone : generate(template).values()) {
+            assertEquals(3.0, clone.get("customInstallUpdateTime"));
+        }
+    }
+    
+    @Test
+    public void buildPropsNeedBothSwitches() throws IOException {
+        Map<String, Object> template = template();
+        template.put("randomizeBuildProps", true);
+        
+        for (Map<String, Object> clone : generate(template).values()) {
+            assertEquals("Template", clone.get(DeviceProfile.KEY_MODEL));
+        }
+    }
+    
+    @Test
+    public void seededBatchesAreReproducible() throws IOException {
+        Map<String, Object> template = template();
+        template.put("changeAndroidId", true);
+        template.put("buildsProps", true);
+        template.put("randomizeBuildProps", true);
+        template.put("spoofLocation", true);
+        
+        assertEquals(generate(template), generate(template));
+    }
+    
+    @Test
+    public void sinkFailuresSurfaceAsIOException() {
+        CloneBatchGenerator generator = new CloneBatchGenerator(IdentityGenerator.seeded(1), devices());
+        try {
+            generator.generate(template(), COUNT, (index, clone) -> {
+                throw new IOException("disk full");
+            }, null);
+            fail();
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+    }
+    
+    private static Map<Integer, Map<String, Object>> generate(Map<String, Object> template) throws IOException {
+        Map<Integer, Map<String, Object>> clones = new ConcurrentHashMap<>();
+        new CloneBatchGenerator(IdentityGenerator.seeded(42), devices())
+                .generate(template, COUNT, clones::put, null);
+        assertEquals(COUNT, clones.size());
+        return clones;
+    }
+    
+    private static Map<String, Object> template() {
+        Map<String, Object> template = new HashMap<>();
+        for (String key : IdentityGenerator.IDENTITY_KEYS) {
+            template.put(key, false);
+            template.put(SettingSchema.forKey(key).getValueKey(), "");
+        }
+        template.put("buildsProps", false);
+        template.put("randomizeBuildProps", false);
+        template.put(DeviceProfile.KEY_MODEL, "Template");
+        template.put("spoofLocation", false);
+        template.put("spoofLocationLatitude", "");
+        template.put("spoofLocationLongitude", "");
+        template.put("changeInstallUpdateTime", false);
+        template.put("relativeInstallUpdateTime", false);
+        template.put("customInstallUpdateTime", 3.0);
+        return template;
+    }
+    
+    private static DeviceSelector devices() {
+        List<DeviceProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Map<String, String> properties = new HashMap<>();
+            properties.put(DeviceProfile.KEY_MODEL, "Model " + i);
+            profiles.add(DeviceProfile.of("Device " + i, properties, new int[]{33}));
+        }
+        return DeviceSelector.of(profiles, DeviceSelector.UNIFORM);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.appclonemaker.utils;
+
+import com.appclonemaker.model.ConfigModel;
+import com.appclonemaker.model.Setting;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConfigChangeLogTest {
+    
+    private static final int SNAPSHOT = 0x5EED;
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private File file;
+    private ConfigChangeLog log;
+    
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "config.log");
+        log = new ConfigChangeLog(file);
+    }
+    
+    @Test
+    public void replayAppliesChangesInOrder() throws IOException {
+        log.append(Arrays.asList(change("snow", "light"), change("addSnow", Boolean.TRUE)), SNAPSHOT);
+        log.append(Collections.singletonList(change("snow", "heavy")), SNAPSHOT);
+        
+        ConfigModel model = defaults();
+        assertEquals(3, new ConfigChangeLog(file).replay(SNAPSHOT, model));
+        
+        assertEquals("heavy", model.getSetting("extra", "snow").getValue());
+        assertEquals(Boolean.TRUE, model.getSetting("extra", "addSnow").getValue());
+    }
+    
+    @Test
+    public void logOfAnotherSnapshotIsIgnoredAndReplaced() throws IOException {
+        log.append(Collections.singletonList(change("snow", "light")), SNAPSHOT);
+        
+        ConfigModel model = defaults();
+        assertEquals(0, log.replay(SNAPSHOT + 1, model));
+        assertEquals("", model.getSetting("extra", "snow").getValue());
+        
+        log.append(Collections.singletonList(change("snow", "heavy")), SNAPSHOT + 1);
+        assertEquals(1, log.replay(SNAPSHOT + 1, model));
+        assertEquals(0, log.replay(SNAPSHOT, defaults()));
+    }
+    
+    @Test
+    public void tornTailEndsReplay() throws IOException {
+        log.append(Collections.singletonList(change("snow", "light")), SNAPSHOT);
+        long intact = log.length();
+        log.append(Collections.singletonList(change("snow", "heavy")), SNAPSHOT);
+        truncate(log.length() - 2);
+        
+        ConfigModel model = defaults();
+        assertEquals(1, new ConfigChangeLog(file).replay(SNAPSHOT, model));
+        assertEquals("light", model.getSetting("extra", "snow").getValue());
+        
+        truncate(intact + 3);
+        model = defaults();
+        assertEquals(1, new ConfigChangeLog(file).replay(SNAPSHOT, model));
+        assertEquals("light", model.getSetting("extra", "snow").getValue());
+    }
+    
+    @Test
+    public void appendAfterTornTailStaysReachable() throws IOException {
+        log.append(Collections.singletonList(change("snow", "light")), SNAPSHOT);
+        log.append(Collections.singletonList(change("snow", "heavy")), SNAPSHOT);
+        truncate(log.length() - 2);
+        
+        // A new process appends without replaying first
+        ConfigChangeLog reopened = new ConfigChangeLog(file);
+        reopened.append(Collections.singletonList(change("addSnow", Boolean.TRUE)), SNAPSHOT);
+        reopened.append(Collections.singletonList(change("snow", "fresh")), SNAPSHOT);
+        
+        ConfigModel model = defaults();
+        assertEquals(3, new ConfigChangeLog(file).replay(SNAPSHOT, model));
+        assertEquals("fresh", model.getSetting("extra", "snow").getValue());
+        assertEquals(Boolean.TRUE, model.getSetting("extra", "addSnow").getValue());
+    }
+    
+    @Test
+    public void clearDropsEveryChange() throws IOException {
+        log.append(Collections.singletonList(change("snow", "light")), SNAPSHOT);
+        log.clear();
+        
+        assertEquals(0, log.replay(SNAPSHOT, defaults()));
+    }
+    
+    private void truncate(long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        }
+    }
+    
+    private static byte[] change(String key, Object value) {
+        return ConfigSnapshot.encodeChange("extra", new Setting(key, key, Setting.SettingType.STRING, value));
+    }
+    
+    private static ConfigModel defaults() {
+        return new ConfigModel(JsonParser.parseConfiguration());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,301 @@
+package com.appclonemaker.utils;
+
+import android.content.ContextWrapper;
+import android.content.SharedPreferences;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.model.ConfigModel;
+import com.google.gson.Gson;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigManagerTest {
+    
+    private static final String KEY_CONFIG = "current_config";
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private FakePreferences prefs;
+    private TestContext context;
+    
+    @Before
+    public void setUp() {
+        prefs = new FakePreferences();
+        context = new TestContext(folder.getRoot(), prefs);
+    }
+    
+    @Test
+    public void nothingToLoadWithoutSnapshotOrLegacyConfig() {
+        assertNull(new ConfigManager(context).loadCategories());
+    }
+    
+    @Test
+    public void legacyConfigIsMigratedIntoTheSnapshot() {
+        prefs.values.put(KEY_CONFIG, "{\"snow\":\"heavy\",\"changeImei\":true,\"unknownKey\":1}");
+        
+        ConfigModel migrated = new ConfigModel(new ConfigManager(context).loadCategories());
+        
+        assertEquals("heavy", migrated.getSetting("extra", "snow").getValue());
+        assertEquals(Boolean.TRUE, migrated.getSetting("deviceInformation", "changeImei").getValue());
+        assertFalse(prefs.values.containsKey(KEY_CONFIG));
+        assertTrue(new File(context.getFilesDir(), "current_config.snap").exists());
+        
+        // A later start reads the snapshot, not the preference
+        ConfigModel reloaded = new ConfigModel(new ConfigManager(context).loadCategories());
+        assertEquals("heavy", reloaded.getSetting("extra", "snow").getValue());
+        assertEquals(Boolean.TRUE, reloaded.getSetting("deviceInformation", "changeImei").getValue());
+    }
+    
+    @Test
+    public void unreadableLegacyConfigIsKept() {
+        prefs.values.put(KEY_CONFIG, "{not json");
+        
+        assertNull(new ConfigManager(context).loadCategories());
+        assertEquals("{not json", prefs.values.get(KEY_CONFIG));
+    }
+    
+    @Test
+    public void savedChangesAreReplayedOntoTheSnapshot() throws Exception {
+        ConfigManager manager = new ConfigManager(context);
+        List<Category> categories = JsonParser.parseConfiguration();
+        assertTrue(manager.saveConfiguration(categories));
+        
+        new ConfigModel(categories).getSetting("extra", "snow").setValue("light");
+        manager.saveChangesAsync(categories, null);
+        awaitWriter();
+        assertTrue(new File(context.getFilesDir(), "current_config.log").exists());
+        
+        ConfigModel reloaded = new ConfigModel(new ConfigManager(context).loadCategories());
+        assertEquals("light", reloaded.getSetting("extra", "snow").getValue());
+    }
+    
+    @Test
+    public void logIsCompactedIntoTheNextSaveOnceFull() throws Exception {
+        ConfigManager manager = new ConfigManager(context);
+        List<Category> categories = JsonParser.parseConfiguration();
+        ConfigModel model = new ConfigModel(categories);
+        File log = new File(context.getFilesDir(), "current_config.log");
+        assertTrue(manager.saveConfiguration(categories));
+        
+        for (int i = 0; i < 256; i++) {
+            model.getSetting("extra", "snow").setValue("snow " + i);
+            manager.saveChangesAsync(categories, null);
+        }
+        awaitWriter();
+        assertTrue(log.exists());
+        
+        model.getSetting("extra", "snow").setValue("compacted");
+        manager.saveChangesAsync(categories, null);
+        awaitWriter();
+        assertFalse(log.exists());
+        
+        ConfigModel reloaded = new ConfigModel(new ConfigManager(context).loadCategories());
+        assertEquals("compacted", reloaded.getSetting("extra", "snow").getValue());
+    }
+    
+    @Test
+    public void loadedSnapshotIsOnlyAppendedTo() throws Exception {
+        List<Category> saved = JsonParser.parseConfiguration();
+        assertTrue(new ConfigManager(context).saveConfiguration(saved));
+        
+        ConfigManager manager = new ConfigManager(context);
+        List<Category> categories = manager.loadCategories();
+        manager.saveChangesAsync(categories, null);
+        awaitWriter();
+        assertEquals(1, manager.getSaveMetrics().getSkippedSaves());
+        assertEquals(0, manager.getSaveMetrics().getFullSaves());
+        
+        new ConfigModel(categories).getSetting("extra", "snow").setValue("light");
+        manager.saveChangesAsync(categories, null);
+        awaitWriter();
+        assertEquals(0, manager.getSaveMetrics().getFullSaves());
+        assertEquals(1, manager.getSaveMetrics().getIncrementalSaves());
+    }
+    
+    @Test
+    public void backupKeepsItsEscapedFormat() throws Exception {
+        List<Category> categories = JsonParser.parseConfiguration();
+        new ConfigModel(categories).getSetting("extra", "snow").setValue("a \"quoted\"\tline\n");
+        Map<String, Object> config = ConfigMapBuilder.build(categories);
+        assertTrue(new ConfigManager(context).saveConfiguration(categories));
+        
+        String expected = new Gson().toJson(config, Map.class)
+                .replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t");
+        File backup = new File(context.getExternalFilesDir(null), "configs/unknown_package_cloneSettings.json");
+        assertEquals(expected, new String(Files.readAllBytes(backup.toPath()), StandardCharsets.UTF_8));
+    }
+    
+    private static void awaitWriter() throws Exception {
+        // The writer is a single thread, so this runs after every queued save
+        ConfigWriter.getExecutor().submit(() -> { }).get();
+    }
+    
+    private static class TestContext extends ContextWrapper {
+        private final File root;
+        private final SharedPreferences prefs;
+        
+        TestContext(File root, SharedPreferences prefs) {
+            super(null);
+            this.root = root;
+            this.prefs = prefs;
+        }
+        
+        @Override
+        public SharedPreferences getSharedPreferences(String name, int mode) {
+            return prefs;
+        }
+        
+        @Override
+        public File getFilesDir() {
+            return mkdir("files");
+        }
+        
+        @Override
+        public File getExternalFilesDir(String type) {
+            return mkdir("external");
+        }
+        
+        private File mkdir(String name) {
+            File dir = new File(root, name);
+            dir.mkdirs();
+            return dir;
+        }
+    }
+    
+    /** In-memory preferences; edits apply immediately. */
+    private static class FakePreferences implements SharedPreferences, SharedPreferences.Editor {
+        final Map<String, Object> values = new HashMap<>();
+        
+        @Override
+        public Map<String, ?> getAll() {
+            return new HashMap<>(values);
+        }
+        
+        @Override
+        public String getString(String key, String defValue) {
+            return values.containsKey(key) ? (String) values.get(key) : defValue;
+        }
+        
+        @SuppressWarnings("unchecked")
+        @Override
+        public Set<String> getStringSet(String key, Set<String> defValues) {
+            return values.containsKey(key) ? (Set<String>) values.get(key) : defValues;
+        }
+        
+        @Override
+        public int getInt(String key, int defValue) {
+            return values.containsKey(key) ? (Integer) values.get(key) : defValue;
+        }
+        
+        @Override
+        public long getLong(String key, long defValue) {
+            return values.containsKey(key) ? (Long) values.get(key) : defValue;
+        }
+        
+        @Override
+        public float getFloat(String key, float defValue) {
+            return values.containsKey(key) ? (Float) values.get(key) : defValue;
+        }
+        
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+            return values.containsKey(key) ? (Boolean) values.get(key) : defValue;
+        }
+        
+        @Override
+        public boolean contains(String key) {
+            return values.containsKey(key);
+        }
+        
+        @Override
+        public Editor edit() {
+            return this;
+        }
+        
+        @Override
+        public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        }
+        
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        }
+        
+        @Override
+        public Editor putString(String key, String value) {
+            values.put(key, value);
+            return this;
+        }
+        
+        @Override
+        public Editor putStringSet(String key, Set<String> value) {
+            values.put(key, value);
+            return this;
+        }
+        
+        @Override
+        public Editor putInt(String key, int value) {
+            values.put(key, value);
+            return this;
+        }
+        
+        @Override
+        public Editor putLong(String key, long value) {
+            values.put(key, value);
+            return this;
+        }
+        
+        @Override
+        public Editor putFloat(String key, float value) {
+            values.put(key, value);
+            return this;
+        }
+        
+        @Override
+        public Editor putBoolean(String key, boolean value) {
+            values.put(key, value);
+            return this;
+        }
+        
+        @Override
+        public Editor remove(String key) {
+            values.remove(key);
+            return this;
+        }
+        
+        @Override
+        public Editor clear() {
+            values.clear();
+            return this;
+        }
+        
+        @Override
+        public boolean commit() {
+            return true;
+        }
+        
+        @Override
+        public void apply() {
+        }
+    }
+}
\ No newline at end of file
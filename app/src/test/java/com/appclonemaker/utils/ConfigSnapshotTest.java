@@ -0,0 +1,178 @@
+package com.appclonemaker.utils;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.model.ConfigModel;
+import com.appclonemaker.model.Setting;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConfigSnapshotTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void roundTripRestoresValuesWithTheirTypes() throws IOException {
+        ConfigModel saved = defaults();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("theme", "dark");
+        map.put("level", 3);
+        saved.getSetting("deviceInformation", "changeImei").setValue(Boolean.TRUE);
+        saved.getSetting("deviceInformation", "changeAndroidSerial").setValue(42);
+        saved.getSetting("locationPrivacy", "spoofLocationLatitude").setValue("52.52,13.40");
+        saved.getSetting("installTime", "customInstallUpdateTime").setValue(1700000000000L);
+        saved.getSetting("installTime", "randomizeUserCreationTime").setValue(-0.0);
+        saved.getSetting("installTime", "relativeInstallUpdateTime").setValue(12.5);
+        saved.getSetting("systemSettings", "skipDialogsStacktraceStrings").setValue(Arrays.asList("a", "b"));
+        saved.getSetting("systemSettings", "overrideSharedPreferences").setValue(map);
+        saved.getSetting("network", "dnsOverHttpsCustomUrl").setValue(null);
+        
+        ConfigModel restored = decode(ConfigSnapshot.encode(saved.getCategories()));
+        
+        assertEquals(Boolean.TRUE, restored.getSetting("deviceInformation", "changeImei").getValue());
+        assertEquals(42, restored.getSetting("deviceInformation", "changeAndroidSerial").getValue());
+        assertEquals("52.52,13.40", restored.getSetting("locationPrivacy", "spoofLocationLatitude").getValue());
+        assertEquals(1700000000000L, restored.getSetting("installTime", "customInstallUpdateTime").getValue());
+        assertEquals(-0.0, restored.getSetting("installTime", "randomizeUserCreationTime").getValue());
+        assertEquals(12.5, restored.getSetting("installTime", "relativeInstallUpdateTime").getValue());
+        assertEquals(Arrays.asList("a", "b"), restored.getSetting("systemSettings", "skipDialogsStacktraceStrings").getValue());
+        assertEquals(map, restored.getSetting("systemSettings", "overrideSharedPreferences").getValue());
+        assertNull(restored.getSetting("network", "dnsOverHttpsCustomUrl").getValue());
+    }
+    
+    @Test
+    public void roundTripRestoresEnabledState() throws IOException {
+        ConfigModel saved = defaults();
+        saved.getSetting("extra", "addSnow").setEnabled(false);
+        
+        ConfigModel restored = decode(ConfigSnapshot.encode(saved.getCategories()));
+        
+        assertFalse(restored.getSetting("extra", "addSnow").isEnabled());
+        assertTrue(restored.getSetting("extra", "snow").isEnabled());
+    }
+    
+    @Test
+    public void schemaComesFromTheDefaults() throws IOException {
+        Category old = new Category("deviceInformation");
+        Setting imei = new Setting("changeImei", "Outdated label", Setting.SettingType.STRING, Boolean.TRUE);
+        imei.setDescription("Outdated description");
+        old.addSetting(imei);
+        old.addSetting(new Setting("removedSetting", "Removed", Setting.SettingType.STRING, "gone"));
+        Category removed = new Category("removedCategory");
+        removed.addSetting(new Setting("changeImei", "Elsewhere", Setting.SettingType.BOOLEAN, Boolean.FALSE));
+        
+        ConfigModel expected = defaults();
+        ConfigModel model = defaults();
+        int restored = ConfigSnapshot.decodeInto(ByteBuffer.wrap(ConfigSnapshot.encode(Arrays.asList(old, removed))), model);
+        
+        assertEquals(1, restored);
+        Setting merged = model.getSetting("deviceInformation", "changeImei");
+        assertEquals(Boolean.TRUE, merged.getValue());
+        assertEquals(Setting.SettingType.BOOLEAN, merged.getType());
+        assertEquals(expected.getSetting("deviceInformation", "changeImei").getName(), merged.getName());
+        assertEquals(expected.getSetting("deviceInformation", "changeImei").getDescription(), merged.getDescription());
+        assertNull(model.getSetting("deviceInformation", "removedSetting"));
+        assertNull(model.getCategory("removedCategory"));
+        // Settings the snapshot does not mention keep their default
+        assertEquals(expected.getSetting("deviceInformation", "changeAndroidId").getValue(),
+                model.getSetting("deviceInformation", "changeAndroidId").getValue());
+    }
+    
+    @Test
+    public void childSettingsAreRestored() throws IOException {
+        Category saved = category("parent", "child", "saved");
+        Category defaults = category("parent", "child", "default");
+        
+        ConfigSnapshot.decodeInto(ByteBuffer.wrap(ConfigSnapshot.encode(Arrays.asList(saved))),
+                new ConfigModel(Arrays.asList(defaults)));
+        
+        assertEquals("saved", defaults.getSetting("parent").getChildSettings().get(0).getValue());
+    }
+    
+    @Test
+    public void changeRecordAppliesValueAndEnabledState() throws IOException {
+        Setting edited = new Setting("snow", "Snow", Setting.SettingType.STRING, "heavy");
+        edited.setEnabled(false);
+        ConfigModel model = defaults();
+        
+        assertTrue(ConfigSnapshot.applyChange(ByteBuffer.wrap(ConfigSnapshot.encodeChange("extra", edited)), model));
+        
+        assertEquals("heavy", model.getSetting("extra", "snow").getValue());
+        assertFalse(model.getSetting("extra", "snow").isEnabled());
+        assertFalse(ConfigSnapshot.applyChange(ByteBuffer.wrap(ConfigSnapshot.encodeChange("network", edited)), model));
+    }
+    
+    @Test
+    public void fileRoundTripKeepsChecksum() throws IOException {
+        ConfigModel saved = defaults();
+        saved.getSetting("extra", "snow").setValue("light");
+        byte[] snapshot = ConfigSnapshot.encode(saved.getCategories());
+        File file = new File(folder.getRoot(), "config.snap");
+        
+        ConfigSnapshot.write(file, snapshot);
+        ConfigModel restored = defaults();
+        ConfigSnapshot.readInto(file, restored);
+        
+        assertEquals("light", restored.getSetting("extra", "snow").getValue());
+        assertEquals(ConfigSnapshot.checksumOf(snapshot), ConfigSnapshot.readChecksum(file));
+    }
+    
+    @Test
+    public void corruptSnapshotIsRejected() {
+        byte[] snapshot = ConfigSnapshot.encode(defaults().getCategories());
+        byte[] flipped = snapshot.clone();
+        flipped[flipped.length - 1] ^= 1;
+        
+        assertRejected(flipped);
+        assertRejected(Arrays.copyOf(snapshot, snapshot.length - 1));
+        assertRejected(Arrays.copyOf(snapshot, 6));
+        assertRejected("not a snapshot".getBytes());
+    }
+    
+    private static void assertRejected(byte[] snapshot) {
+        try {
+            decode(snapshot);
+            fail("Decoded a corrupt snapshot");
+        } catch (IOException expected) {
+            // Rejected
+        }
+    }
+    
+    private static ConfigModel decode(byte[] snapshot) throws IOException {
+        ConfigModel model = defaults();
+        ConfigSnapshot.decodeInto(ByteBuffer.wrap(snapshot), model);
+        return model;
+    }
+    
+    private static ConfigModel defaults() {
+        return new ConfigModel(JsonParser.parseConfiguration());
+    }
+    
+    private static Category category(String parentKey, String childKey, Object childValue) {
+        Setting parent = new Setting(parentKey, "Parent", Setting.SettingType.BOOLEAN, Boolean.TRUE);
+        List<Setting> children = new ArrayList<>();
+        children.add(new Setting(childKey, "Child", Setting.SettingType.STRING, childValue));
+        parent.setParentSetting(true);
+        parent.setChildSettings(children);
+        Category category = new Category("nested");
+        category.addSetting(parent);
+        return category;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.appclonemaker.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DeviceSelectorTest {
+    
+    private static final int DRAWS = 100000;
+    
+    @Test
+    public void drawsFollowTheWeights() {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("rare", 1.0);
+        weights.put("common", 3.0);
+        weights.put("dominant", 6.0);
+        DeviceSelector selector = DeviceSelector.of(profiles("rare", "common", "dominant"),
+                profile -> weights.get(profile.getDisplayName()));
+        IdentityGenerator.RandomSource random = IdentityGenerator.seeded(7).getRandomSource();
+        
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < DRAWS; i++) {
+            String name = selector.next(random).getDisplayName();
+            Integer count = counts.get(name);
+            counts.put(name, count == null ? 1 : count + 1);
+        }
+        
+        for (Map.Entry<String, Double> weight : weights.entrySet()) {
+            double expected = DRAWS * weight.getValue() / 10;
+            assertEquals(weight.getKey(), expected, counts.get(weight.getKey()), expected * 0.05);
+        }
+    }
+    
+    @Test
+    public void zeroAndInvalidWeightsAreNeverDrawn() {
+        Map<String, Double> weights = new HashMap<>();
+        weights.put("kept", 1.0);
+        weights.put("zero", 0.0);
+        weights.put("nan", Double.NaN);
+        weights.put("infinite", Double.POSITIVE_INFINITY);
+        DeviceSelector selector = DeviceSelector.of(profiles("kept", "zero", "nan", "infinite"),
+                profile -> weights.get(profile.getDisplayName()));
+        IdentityGenerator.RandomSource random = IdentityGenerator.seeded(1).getRandomSource();
+        
+        assertEquals(1, selector.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("kept", selector.next(random).getDisplayName());
+        }
+    }
+    
+    @Test
+    public void drawDoesNotRepeatUntilEveryProfileIsUsed() {
+        List<DeviceProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            profiles.add(profile("Device " + i));
+        }
+        // Skewed weights make rejections and table rebuilds likely
+        DeviceSelector selector = DeviceSelector.of(profiles,
+                profile -> profile.getDisplayName().endsWith("0") ? 1000 : 1);
+        DeviceSelector.Draw draw = selector.newDraw();
+        IdentityGenerator.RandomSource random = IdentityGenerator.seeded(3).getRandomSource();
+        
+        for (int round = 0; round < 3; round++) {
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < profiles.size(); i++) {
+                assertTrue(seen.add(draw.next(random).getDisplayName()));
+            }
+            assertEquals(profiles.size(), seen.size());
+        }
+    }
+    
+    @Test
+    public void seededDrawsRepeat() {
+        DeviceSelector selector = DeviceSelector.of(profiles("a", "b", "c", "d", "e"), DeviceSelector.UNIFORM);
+        
+        assertEquals(drawNames(selector, 11), drawNames(selector, 11));
+    }
+    
+    @Test
+    public void filterKeepsMatchingCustomProfiles() {
+        List<DeviceProfile> custom = Arrays.asList(
+                device("Pixel", "Google", 34),
+                device("Galaxy", "Samsung", 33),
+                device("Unversioned", "Google"));
+        IdentityGenerator.RandomSource random = IdentityGenerator.seeded(5).getRandomSource();
+        
+        DeviceSelector google = DeviceSelector.of(DeviceDatabase.empty(),
+                new DeviceDatabase.Filter().manufacturers(Collections.singletonList("Google")), custom, DeviceSelector.UNIFORM);
+        assertEquals(2, google.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Google", google.next(random).getProperties().get(DeviceProfile.KEY_MANUFACTURER));
+        }
+        
+        DeviceSelector sdk33 = DeviceSelector.of(DeviceDatabase.empty(),
+                new DeviceDatabase.Filter().sdkVersions(Collections.singletonList(33)), custom, DeviceSelector.UNIFORM);
+        assertEquals(1, sdk33.size());
+        assertEquals("Galaxy", sdk33.next(random).getDisplayName());
+    }
+    
+    @Test
+    public void filterForReadsTheCloneConfig() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("filterDevicesDatabase", true);
+        config.put("devicesDatabaseFilters", Arrays.asList("Samsung"));
+        config.put("devicesDatabaseUseAndroidVersion", true);
+        Map<String, Object> levels = new LinkedHashMap<>();
+        levels.put("33.0", true);
+        levels.put("34", false);
+        config.put("devicesDatabaseSdkVersions", levels);
+        List<DeviceProfile> custom = Arrays.asList(
+                device("Galaxy 33", "Samsung", 33),
+                device("Galaxy 34", "Samsung", 34),
+                device("Pixel 33", "Google", 33));
+        
+        DeviceSelector selector = DeviceSelector.of(DeviceDatabase.empty(), DeviceSelector.filterFor(config),
+                custom, DeviceSelector.UNIFORM);
+        
+        assertEquals(1, selector.size());
+        assertEquals("Galaxy 33", selector.next(IdentityGenerator.seeded(9).getRandomSource()).getDisplayName());
+        assertTrue(DeviceSelector.filterFor(new HashMap<String, Object>()).isEmpty());
+    }
+    
+    @Test
+    public void emptySelectorDrawsNothing() {
+        DeviceSelector selector = DeviceSelector.of(new ArrayList<DeviceProfile>(), DeviceSelector.UNIFORM);
+        IdentityGenerator.RandomSource random = IdentityGenerator.seeded(2).getRandomSource();
+        
+        assertTrue(selector.isEmpty());
+        assertNull(selector.next(random));
+        assertNull(selector.newDraw().next(random));
+        assertFalse(DeviceSelector.of(profiles("only"), DeviceSelector.UNIFORM).isEmpty());
+    }
+    
+    private static List<String> drawNames(DeviceSelector selector, long seed) {
+        IdentityGenerator.RandomSource random = IdentityGenerator.seeded(seed).getRandomSource();
+        DeviceSelector.Draw draw = selector.newDraw();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            names.add(draw.next(random).getDisplayName());
+        }
+        return names;
+    }
+    
+    private static List<DeviceProfile> profiles(String... names) {
+        List<DeviceProfile> profiles = new ArrayList<>();
+        for (String name : names) {
+            profiles.add(profile(name));
+        }
+        return profiles;
+    }
+    
+    private static DeviceProfile profile(String name) {
+        return DeviceProfile.of(name, new HashMap<String, String>(), new int[0]);
+    }
+    
+    private static DeviceProfile device(String name, String manufacturer, int... sdkVersions) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(DeviceProfile.KEY_MANUFACTURER, manufacturer);
+        return DeviceProfile.of(name, properties, sdkVersions);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.appclonemaker.utils;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.model.Setting;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JsonParserTest {
+    
+    private static final String CONFIG = "{"
+            + "\"deviceInformation\": {\"changeAndroidId\": true, \"changeLocale\": \"de_DE\"},"
+            + "\"version\": 3,"
+            + "\"empty\": {},"
+            + "\"locationPrivacy\": {\"spoofLocation\": false, \"spoofLocationInterval\": 5,"
+            + " \"spoofLocationApi\": null},"
+            + "\"buildProperties\": {\"devicesDatabaseFilters\": [\"Google\", 7],"
+            + " \"devicesDatabaseSdkVersions\": {\"33\": true, \"34\": false},"
+            + " \"customBuildPropsFile\": \"ro.x=1\", \"buildPropsModel\": \"a\", \"buildPropsModel\": \"b\"}"
+            + "}";
+    
+    @Test
+    public void defaultConfigurationKeepsDocumentOrder() {
+        List<Category> categories = JsonParser.parseConfiguration();
+        
+        assertEquals("deviceInformation", categories.get(0).getName());
+        assertEquals("locationPrivacy", categories.get(1).getName());
+        assertEquals("buildProperties", categories.get(2).getName());
+        assertEquals("changeAndroidId", categories.get(0).getSettings().get(0).getKey());
+    }
+    
+    @Test
+    public void defaultConfigurationResolvesSchema() {
+        Map<String, Setting> settings = byKey(JsonParser.parseConfiguration());
+        
+        Setting androidId = settings.get("changeAndroidId");
+        assertEquals(Setting.SettingType.BOOLEAN, androidId.getType());
+        assertEquals(Boolean.TRUE, androidId.getValue());
+        assertEquals("Change Android Id", androidId.getName());
+        assertEquals("Generate a new random Android ID", androidId.getDescription());
+        
+        Setting spoofLocation = settings.get("spoofLocation");
+        assertEquals(Setting.SettingType.CUSTOM, spoofLocation.getType());
+        assertTrue(spoofLocation.isParentSetting());
+        
+        Setting locale = settings.get("changeLocale");
+        assertEquals(Setting.SettingType.DROPDOWN, locale.getType());
+        assertTrue(locale.getOptions().contains("en_US"));
+        
+        assertEquals(Setting.SettingType.NUMBER, settings.get("customInstallUpdateTime").getType());
+        assertEquals(0.0, settings.get("customInstallUpdateTime").getValue());
+        assertEquals(Setting.SettingType.TEXT, settings.get("customBuildPropsFile").getType());
+        assertEquals(Setting.SettingType.COMPOUND, settings.get("devicesDatabaseSdkVersions").getType());
+        assertEquals(Setting.SettingType.ARRAY, settings.get("devicesDatabaseFilters").getType());
+    }
+    
+    @Test
+    public void streamingParseSkipsNonCategoriesAndEmptyCategories() throws Exception {
+        List<Category> categories = JsonParser.parseConfiguration(new StringReader(CONFIG));
+        
+        assertEquals(3, categories.size());
+        assertEquals("deviceInformation", categories.get(0).getName());
+        assertEquals("locationPrivacy", categories.get(1).getName());
+        assertEquals("buildProperties", categories.get(2).getName());
+    }
+    
+    @Test
+    public void streamingParseReadsEveryValueKind() throws Exception {
+        Map<String, Setting> settings = byKey(JsonParser.parseConfiguration(new StringReader(CONFIG)));
+        
+        assertEquals(5.0, settings.get("spoofLocationInterval").getValue());
+        assertNull(settings.get("spoofLocationApi").getValue());
+        assertEquals(Arrays.<Object>asList("Google", 7.0), settings.get("devicesDatabaseFilters").getValue());
+        
+        Map<String, Object> sdkVersions = new LinkedHashMap<>();
+        sdkVersions.put("33", true);
+        sdkVersions.put("34", false);
+        assertEquals(sdkVersions, settings.get("devicesDatabaseSdkVersions").getValue());
+        assertEquals(Setting.SettingType.DROPDOWN, settings.get("changeLocale").getType());
+        assertEquals(Setting.SettingType.TEXT, settings.get("customBuildPropsFile").getType());
+    }
+    
+    @Test
+    public void duplicateKeysKeepTheLastValue() throws Exception {
+        Category buildProperties = JsonParser.parseConfiguration(new StringReader(CONFIG)).get(2);
+        
+        assertEquals("b", buildProperties.getSetting("buildPropsModel").getValue());
+        assertEquals(4, buildProperties.getSettings().size());
+    }
+    
+    @Test
+    public void streamingParseMatchesTreeParse() throws Exception {
+        String json = "{\"a\": {\"flag\": true, \"count\": 2, \"name\": \"x\", \"list\": [1, \"y\"],"
+                + " \"map\": {\"k\": false}}, \"b\": {\"changeLocale\": \"en_US\"}}";
+        Map<String, Map<String, Object>> tree = new Gson().fromJson(json,
+                new TypeToken<Map<String, Map<String, Object>>>(){}.getType());
+        
+        List<Category> streamed = JsonParser.parseConfiguration(new StringReader(json));
+        List<Category> parsed = JsonParser.parseConfigData(tree);
+        
+        assertEquals(parsed.size(), streamed.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            List<Setting> expected = parsed.get(i).getSettings();
+            List<Setting> actual = streamed.get(i).getSettings();
+            assertEquals(parsed.get(i).getName(), streamed.get(i).getName());
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(j).getKey(), actual.get(j).getKey());
+                assertEquals(expected.get(j).getName(), actual.get(j).getName());
+                assertEquals(expected.get(j).getType(), actual.get(j).getType());
+                assertEquals(expected.get(j).getValue(), actual.get(j).getValue());
+            }
+        }
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void malformedDocumentIsRejected() throws Exception {
+        JsonParser.parseConfiguration(new StringReader("[1, 2]"));
+    }
+    
+    @Test
+    public void emptyDocumentHasNoCategories() throws Exception {
+        assertEquals(Collections.emptyList(), JsonParser.parseConfiguration(new StringReader("{}")));
+    }
+    
+    private static Map<String, Setting> byKey(List<Category> categories) {
+        Map<String, Setting> settings = new LinkedHashMap<>();
+        for (Category category : categories) {
+            for (Setting setting : category.getSettings()) {
+                assertNotNull(setting.getName());
+                assertFalse(settings.containsKey(setting.getKey()));
+                settings.put(setting.getKey(), setting);
+            }
+        }
+        return settings;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.appclonemaker.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class LabelFormatterTest {
+    
+    @Test
+    public void splitsCamelCaseIntoWords() {
+        assertEquals("Change Android Id", LabelFormatter.format("changeAndroidId"));
+        assertEquals("Spoof Location Interval", LabelFormatter.format("spoofLocationInterval"));
+        assertEquals("Build Props Model", LabelFormatter.format("buildPropsModel"));
+    }
+    
+    @Test
+    public void appliesKnownSpellings() {
+        assertEquals("WebView Cookies", LabelFormatter.format("webViewCookies"));
+        assertEquals("DNS over HTTPS Custom Url", LabelFormatter.format("dnsOverHttpsCustomUrl"));
+        assertEquals("Change IMEI", LabelFormatter.format("changeImei"));
+        assertEquals("Change IMSI", LabelFormatter.format("changeImsi"));
+        assertEquals("Change Wifi MAC Address", LabelFormatter.format("changeWifiMacAddress"));
+    }
+    
+    @Test
+    public void keepsAcronymsTogether() {
+        assertEquals("Show WebView IFrame Source Code", LabelFormatter.format("showWebViewIFrameSourceCode"));
+        assertEquals("IMEI", LabelFormatter.format("IMEI"));
+    }
+    
+    @Test
+    public void splitsAfterDigits() {
+        assertEquals("Sdk34 Only", LabelFormatter.format("sdk34Only"));
+    }
+    
+    @Test
+    public void leavesFormattedLabelsUnchanged() {
+        assertEquals("Change Android Id", LabelFormatter.format("Change Android Id"));
+    }
+    
+    @Test
+    public void handlesEmptyAndNullKeys() {
+        assertEquals("", LabelFormatter.format(""));
+        assertEquals("", LabelFormatter.format(null));
+        assertEquals("X", LabelFormatter.format("x"));
+    }
+    
+    @Test
+    public void returnsTheCachedLabel() {
+        String first = LabelFormatter.format("hostsBlockerUseFile");
+        assertSame(first, LabelFormatter.format("hostsBlockerUseFile"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.appclonemaker.benchmarks;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.utils.ConfigMapBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/** Flattening categories into the map that every save serializes. */
+@State(Scope.Benchmark)
+public class ConfigMapBuilderBenchmark {
+    
+    @Param({"100", "1000", "10000"})
+    public int settings;
+    
+    private List<Category> categories;
+    
+    @Setup
+    public void setUp() throws IOException {
+        categories = SyntheticConfigs.categories(settings);
+    }
+    
+    @Benchmark
+    public Map<String, Object> build() {
+        return ConfigMapBuilder.build(categories);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.appclonemaker.benchmarks;
+
+import com.appclonemaker.utils.DeviceDatabase;
+import com.appclonemaker.utils.DeviceProfile;
+import com.appclonemaker.utils.DeviceSelector;
+import com.appclonemaker.utils.IdentityGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted device draws over synthetic catalogues with skewed, market-share
+ * like weights. A single draw should cost the same at every catalogue size;
+ * a batch draws 1000 devices without repeats, as for a batch of clones.
+ */
+@State(Scope.Benchmark)
+public class DeviceSelectorBenchmark {
+    
+    private static final String[] MANUFACTURERS = {"Google", "Samsung", "Xiaomi", "OnePlus", "Motorola", "Oppo", "Vivo", "Sony"};
+    private static final int BATCH_SIZE = 1000;
+    
+    @Param({"100", "10000", "100000"})
+    public int devices;
+    
+    private DeviceSelector selector;
+    private IdentityGenerator.RandomSource random;
+    
+    @Setup
+    public void setUp() {
+        Random seeds = new Random(42);
+        List<DeviceProfile> profiles = new ArrayList<>(devices);
+        Map<String, Double> shares = new HashMap<>();
+        for (int i = 0; i < devices; i++) {
+            Map<String, String> properties = new HashMap<>();
+            properties.put(DeviceProfile.KEY_MANUFACTURER, MANUFACTURERS[seeds.nextInt(MANUFACTURERS.length)]);
+            properties.put(DeviceProfile.KEY_MODEL, "Model " + i);
+            profiles.add(DeviceProfile.of("Device " + i, properties, new int[]{30 + seeds.nextInt(5)}));
+            // A few devices hold most of the market
+            shares.put("Device " + i, Math.pow(seeds.nextDouble(), 4));
+        }
+        
+        selector = DeviceSelector.of(DeviceDatabase.of(profiles), new DeviceDatabase.Filter(),
+                new ArrayList<DeviceProfile>(), profile -> shares.get(profile.getDisplayName()));
+        random = IdentityGenerator.fast().getRandomSource();
+    }
+    
+    @Benchmark
+    public DeviceProfile weightedDraw() {
+        return selector.next(random);
+    }
+    
+    @Benchmark
+    public void batchWithoutRepeats(Blackhole blackhole) {
+        DeviceSelector.Draw draw = selector.newDraw();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            blackhole.consume(draw.next(random));
+        }
+    }
+}
\ No newline at end of file
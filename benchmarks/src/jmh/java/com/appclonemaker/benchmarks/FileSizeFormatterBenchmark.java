@@ -0,0 +1,24 @@
+package com.appclonemaker.benchmarks;
+
+import com.appclonemaker.utils.FileSizeFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Formatting sizes from each unit range, as a file list does when it binds. */
+@State(Scope.Benchmark)
+public class FileSizeFormatterBenchmark {
+    
+    private final long[] sizes = {
+        512L, 4_096L, 350_000L, 12_582_912L, 734_003_200L, 3_221_225_472L
+    };
+    
+    @Benchmark
+    public void format(Blackhole blackhole) {
+        for (long size : sizes) {
+            blackhole.consume(FileSizeFormatter.format(size));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.appclonemaker.benchmarks;
+
+import com.appclonemaker.utils.IdentityGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * One identifier per invocation for each generator used by clone configs,
+ * plus bulk identity generation, for every random source.
+ */
+@State(Scope.Benchmark)
+public class IdentityGeneratorBenchmark {
+    
+    @Param({"fast", "secure", "seeded"})
+    public String source;
+    
+    private IdentityGenerator generator;
+    
+    @Setup
+    public void setUp() {
+        switch (source) {
+            case "secure":
+                generator = IdentityGenerator.secure();
+                break;
+            case "seeded":
+                generator = IdentityGenerator.seeded(42L);
+                break;
+            default:
+                generator = IdentityGenerator.fast();
+                break;
+        }
+    }
+    
+    @Benchmark
+    public String androidId() {
+        return generator.generateHex(16);
+    }
+    
+    @Benchmark
+    public String serial() {
+        return generator.generateAlphanum(12);
+    }
+    
+    @Benchmark
+    public String imei() {
+        return generator.generateLuhnCheckedImei();
+    }
+    
+    @Benchmark
+    public String macAddress() {
+        return generator.generateMacAddress();
+    }
+    
+    @Benchmark
+    public String advertisingId() {
+        return generator.generateUuidV4();
+    }
+    
+    @Benchmark
+    public IdentityGenerator.Identity[] identities1k() {
+        return generator.generateIdentities(1000);
+    }
+}
\ No newline at end of file
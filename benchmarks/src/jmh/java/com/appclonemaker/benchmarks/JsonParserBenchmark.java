@@ -0,0 +1,51 @@
+package com.appclonemaker.benchmarks;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.utils.JsonParser;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parse of a whole config, including type inference and labels: the
+ * streaming parser against the previous path, which first built a map of the
+ * whole document with Gson. Run with the gc profiler to compare allocations.
+ */
+@State(Scope.Benchmark)
+public class JsonParserBenchmark {
+    
+    private static final Type CONFIG_TYPE = new TypeToken<Map<String, Map<String, Object>>>(){}.getType();
+    
+    @Param({"100", "1000", "10000"})
+    public int settings;
+    
+    private final Gson gson = new Gson();
+    private String json;
+    
+    @Setup
+    public void setUp() {
+        json = SyntheticConfigs.json(settings);
+    }
+    
+    @Benchmark
+    public List<Category> parseConfiguration() throws IOException {
+        return JsonParser.parseConfiguration(new StringReader(json));
+    }
+    
+    @Benchmark
+    public List<Category> parseViaGsonMap() {
+        Map<String, Map<String, Object>> configData = gson.fromJson(json, CONFIG_TYPE);
+        return JsonParser.parseConfigData(configData);
+    }
+}
\ No newline at end of file
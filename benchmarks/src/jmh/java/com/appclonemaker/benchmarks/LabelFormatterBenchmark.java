@@ -0,0 +1,38 @@
+package com.appclonemaker.benchmarks;
+
+import com.appclonemaker.utils.LabelFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Label formatting over every key of a config. Up to a few hundred keys stay
+ * in the formatter's cache; the 10k case mostly measures cache misses.
+ */
+@State(Scope.Benchmark)
+public class LabelFormatterBenchmark {
+    
+    @Param({"100", "1000", "10000"})
+    public int settings;
+    
+    private List<String> keys;
+    
+    @Setup
+    public void setUp() throws IOException {
+        keys = SyntheticConfigs.keys(settings);
+    }
+    
+    @Benchmark
+    public void formatAll(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(LabelFormatter.format(key));
+        }
+    }
+}
\ No newline at end of file
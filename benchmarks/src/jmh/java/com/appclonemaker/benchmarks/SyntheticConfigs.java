@@ -0,0 +1,60 @@
+package com.appclonemaker.benchmarks;
+
+import com.appclonemaker.model.Category;
+import com.appclonemaker.model.Setting;
+import com.appclonemaker.utils.JsonParser;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthetic configurations of a given size. Keys and values are drawn from
+ * the sample config, so every value type and schema entry is represented;
+ * keys past the first pass get an index suffix to stay unique.
+ */
+final class SyntheticConfigs {
+    
+    private static final int SETTINGS_PER_CATEGORY = 50;
+    
+    private SyntheticConfigs() {
+    }
+    
+    static String json(int settingCount) {
+        List<Setting> samples = new ArrayList<>();
+        for (Category category : JsonParser.parseConfiguration()) {
+            samples.addAll(category.getSettings());
+        }
+        
+        Map<String, Map<String, Object>> document = new LinkedHashMap<>();
+        Map<String, Object> category = null;
+        for (int i = 0; i < settingCount; i++) {
+            if (i % SETTINGS_PER_CATEGORY == 0) {
+                category = new LinkedHashMap<>();
+                document.put("category" + (i / SETTINGS_PER_CATEGORY), category);
+            }
+            Setting sample = samples.get(i % samples.size());
+            String key = i < samples.size() ? sample.getKey() : sample.getKey() + i;
+            category.put(key, sample.getValue());
+        }
+        return new Gson().toJson(document);
+    }
+    
+    static List<Category> categories(int settingCount) throws IOException {
+        return JsonParser.parseConfiguration(new StringReader(json(settingCount)));
+    }
+    
+    static List<String> keys(int settingCount) throws IOException {
+        List<String> keys = new ArrayList<>(settingCount);
+        for (Category category : categories(settingCount)) {
+            for (Setting setting : category.getSettings()) {
+                keys.add(setting.getKey());
+            }
+        }
+        return keys;
+    }
+}
\ No newline at end of file
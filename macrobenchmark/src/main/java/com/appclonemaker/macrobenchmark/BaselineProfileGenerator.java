@@ -0,0 +1,50 @@
+package com.appclonemaker.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Regenerates app/src/main/baseline-prof.txt. Run on a rooted device or an
+ * API 33+ emulator:
+ *
+ * <pre>
+ * ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest \
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.appclonemaker.macrobenchmark.BaselineProfileGenerator
+ * </pre>
+ *
+ * then copy the emitted {@code *-baseline-prof.txt} over the checked-in file.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+    
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+    
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+                Journeys.TARGET_PACKAGE,
+                15,
+                3,
+                null,
+                true,
+                false,
+                rule -> true,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    Journeys.awaitCategories(scope);
+                    Journeys.expandFirstCategory(scope);
+                    Journeys.typeSearch(scope, "mac");
+                    Journeys.clearSearch(scope);
+                    Journeys.openAndSaveEditor(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.appclonemaker.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Frame timing of the interactive paths on the main screen: expanding a
+ * category, typing into search, and opening and saving the editor.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InteractionBenchmark {
+    
+    private static final int ITERATIONS = 10;
+    
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+    
+    @Test
+    public void expandCategory() {
+        benchmarkRule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(),
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.startActivityAndWait();
+                    Journeys.awaitCategories(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.expandFirstCategory(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+    
+    @Test
+    public void searchTyping() {
+        benchmarkRule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(),
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.startActivityAndWait();
+                    Journeys.awaitCategories(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.typeSearch(scope, "webview");
+                    Journeys.clearSearch(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+    
+    @Test
+    public void editorOpenAndSave() {
+        benchmarkRule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(),
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.startActivityAndWait();
+                    Journeys.awaitCategories(scope);
+                    Journeys.expandFirstCategory(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.openAndSaveEditor(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
\ No newline at end of file
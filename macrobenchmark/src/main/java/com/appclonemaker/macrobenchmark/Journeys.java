@@ -0,0 +1,58 @@
+package com.appclonemaker.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * UI journeys shared by the benchmarks and the baseline profile generator,
+ * so the profile covers exactly the paths that are measured.
+ */
+final class Journeys {
+    
+    static final String TARGET_PACKAGE = "com.appclonemaker";
+    
+    private static final long TIMEOUT_MS = 5_000;
+    
+    private Journeys() {
+    }
+    
+    /** Waits until the category list has been populated from the parsed config. */
+    static void awaitCategories(MacrobenchmarkScope scope) {
+        scope.getDevice().wait(Until.hasObject(By.res(TARGET_PACKAGE, "category_header")), TIMEOUT_MS);
+    }
+    
+    static void expandFirstCategory(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 header = device.findObject(By.res(TARGET_PACKAGE, "category_header"));
+        header.click();
+        device.wait(Until.hasObject(By.res(TARGET_PACKAGE, "setting_container")), TIMEOUT_MS);
+    }
+    
+    static void typeSearch(MacrobenchmarkScope scope, String query) {
+        UiDevice device = scope.getDevice();
+        UiObject2 search = device.findObject(By.res(TARGET_PACKAGE, "search_input"));
+        // One character at a time, like a user typing, so each keystroke is debounced
+        for (int i = 1; i <= query.length(); i++) {
+            search.setText(query.substring(0, i));
+        }
+        device.waitForIdle();
+    }
+    
+    static void clearSearch(MacrobenchmarkScope scope) {
+        UiObject2 search = scope.getDevice().findObject(By.res(TARGET_PACKAGE, "search_input"));
+        search.clear();
+        scope.getDevice().waitForIdle();
+    }
+    
+    static void openAndSaveEditor(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 setting = device.findObject(By.res(TARGET_PACKAGE, "setting_container"));
+        setting.click();
+        UiObject2 save = device.wait(Until.findObject(By.res(TARGET_PACKAGE, "editor_save_btn")), TIMEOUT_MS);
+        save.click();
+        device.wait(Until.gone(By.res(TARGET_PACKAGE, "editor_save_btn")), TIMEOUT_MS);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.appclonemaker.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * Cold and warm startup, each with and without the baseline profile, so a
+ * regression in either the code or the profile shows up in the numbers.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+    
+    private static final int ITERATIONS = 10;
+    
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+    
+    @Test
+    public void coldStartupNoCompilation() {
+        startup(StartupMode.COLD, new CompilationMode.None());
+    }
+    
+    @Test
+    public void coldStartupBaselineProfile() {
+        startup(StartupMode.COLD, new CompilationMode.Partial());
+    }
+    
+    @Test
+    public void warmStartupNoCompilation() {
+        startup(StartupMode.WARM, new CompilationMode.None());
+    }
+    
+    @Test
+    public void warmStartupBaselineProfile() {
+        startup(StartupMode.WARM, new CompilationMode.Partial());
+    }
+    
+    private void startup(StartupMode startupMode, CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Arrays.asList(
+                        new StartupTimingMetric(),
+                        new TraceSectionMetric("ConfigRepository.parse", TraceSectionMetric.Mode.First)),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    // reportFullyDrawn fires once the categories are shown
+                    scope.startActivityAndWait();
+                    Journeys.awaitCategories(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
\ No newline at end of file